@@ -18,12 +18,28 @@ repositories {
     mavenCentral()
 }
 
+// Load test chạy app + stub Service B trong cùng process: ./gradlew loadTest -PloadArgs="mode=open rate=50"
+sourceSets {
+    create("loadtest") {
+        compileClasspath += sourceSets.main.get().output
+        runtimeClasspath += sourceSets.main.get().output
+    }
+}
+
+configurations["loadtestImplementation"].extendsFrom(configurations.implementation.get())
+configurations["loadtestRuntimeOnly"].extendsFrom(configurations.runtimeOnly.get())
+
 extra["springCloudVersion"] = "2025.0.1"
 
 dependencies {
     implementation("org.springframework.cloud:spring-cloud-starter-circuitbreaker-resilience4j")
     implementation("org.springframework.boot:spring-boot-starter-aop")
     implementation("org.springframework.boot:spring-boot-starter-web")
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
+    implementation("io.github.resilience4j:resilience4j-micrometer")
+    // BulkheadDeadlineAspect dùng BulkheadRegistry/BulkheadFullException trực tiếp
+    implementation("io.github.resilience4j:resilience4j-bulkhead")
+    runtimeOnly("io.micrometer:micrometer-registry-prometheus")
     testImplementation("org.springframework.boot:spring-boot-starter-test")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
@@ -37,3 +53,11 @@ dependencyManagement {
 tasks.withType<Test> {
     useJUnitPlatform()
 }
+
+tasks.register<JavaExec>("loadTest") {
+    group = "verification"
+    description = "Chạy stub /api/data + app rồi bắn tải open/closed-loop vào /test-fault-tolerance"
+    classpath = sourceSets["loadtest"].runtimeClasspath
+    mainClass = "iuh.fit.se.loadtest.LoadTest"
+    args = (project.findProperty("loadArgs") as String?)?.split(" ")?.filter { it.isNotBlank() } ?: emptyList()
+}
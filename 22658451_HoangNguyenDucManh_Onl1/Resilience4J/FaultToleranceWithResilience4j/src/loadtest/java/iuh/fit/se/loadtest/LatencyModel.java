@@ -0,0 +1,42 @@
+package iuh.fit.se.loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// Phân phối độ trễ của stub: fixed:50, uniform:10:200, exp:50, lognormal:50:0.8, bimodal:20:2000:0.05
+public interface LatencyModel {
+    long sampleMillis();
+
+    static LatencyModel parse(String spec) {
+        String[] p = spec.split(":");
+        switch (p[0]) {
+            case "fixed": {
+                long ms = Long.parseLong(p[1]);
+                return () -> ms;
+            }
+            case "uniform": {
+                long min = Long.parseLong(p[1]);
+                long max = Long.parseLong(p[2]);
+                return () -> ThreadLocalRandom.current().nextLong(min, max + 1);
+            }
+            case "exp": {
+                double mean = Double.parseDouble(p[1]);
+                return () -> (long) (-mean * Math.log(1 - ThreadLocalRandom.current().nextDouble()));
+            }
+            case "lognormal": {
+                // median, sigma
+                double mu = Math.log(Double.parseDouble(p[1]));
+                double sigma = Double.parseDouble(p[2]);
+                return () -> (long) Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian());
+            }
+            case "bimodal": {
+                // fast, slow, tỉ lệ slow
+                long fast = Long.parseLong(p[1]);
+                long slow = Long.parseLong(p[2]);
+                double slowRatio = Double.parseDouble(p[3]);
+                return () -> ThreadLocalRandom.current().nextDouble() < slowRatio ? slow : fast;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown latency model: " + spec);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package iuh.fit.se.loadtest;
+
+import java.util.Arrays;
+
+// Lưu toàn bộ mẫu (micro giây) để tính percentile chính xác; tool chạy ngoài hot path nên synchronized là đủ
+public class LatencyRecorder {
+    // Cách đo latency, in kèm report để không gắn nhãn "CO-corrected" khi không sửa gì
+    private final String method;
+    private long[] samples = new long[1 << 16];
+    private int size;
+    private long ok;
+    private long fallbacks;
+    private long sheds;
+    private long errors;
+
+    public LatencyRecorder(String method) {
+        this.method = method;
+    }
+
+    public synchronized void record(long micros) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = micros;
+    }
+
+    // Sửa coordinated omission cho closed-loop (kiểu HdrHistogram recordValueWithExpectedInterval):
+    // request chậm đã làm các request lẽ ra được gửi trong lúc đó bị hoãn, nên bù thêm các mẫu đó
+    public synchronized void recordCorrected(long micros, long expectedIntervalMicros) {
+        record(micros);
+        if (expectedIntervalMicros <= 0) {
+            return;
+        }
+        for (long missing = micros - expectedIntervalMicros; missing >= expectedIntervalMicros;
+             missing -= expectedIntervalMicros) {
+            record(missing);
+        }
+    }
+
+    public synchronized void outcome(boolean success, boolean fallback) {
+        if (!success) {
+            errors++;
+        } else if (fallback) {
+            fallbacks++;
+        } else {
+            ok++;
+        }
+    }
+
+    // 503 từ admission control: bị shed trước khi vào controller
+    public synchronized void shed() {
+        sheds++;
+    }
+
+    public synchronized Report report(double elapsedSeconds) {
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        return new Report(method, sorted, ok, fallbacks, sheds, errors, elapsedSeconds);
+    }
+
+    public static class Report {
+        private final String method;
+        private final long[] sorted;
+        private final long ok;
+        private final long fallbacks;
+        private final long sheds;
+        private final long errors;
+        private final double elapsedSeconds;
+
+        Report(String method, long[] sorted, long ok, long fallbacks, long sheds, long errors,
+               double elapsedSeconds) {
+            this.method = method;
+            this.sorted = sorted;
+            this.ok = ok;
+            this.fallbacks = fallbacks;
+            this.sheds = sheds;
+            this.errors = errors;
+            this.elapsedSeconds = elapsedSeconds;
+        }
+
+        public long percentileMicros(double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int idx = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(idx, sorted.length - 1))];
+        }
+
+        public long completed() {
+            return ok + fallbacks + sheds + errors;
+        }
+
+        public double throughput() {
+            return elapsedSeconds == 0 ? 0 : completed() / elapsedSeconds;
+        }
+
+        public double fallbackRatio() {
+            return completed() == 0 ? 0 : (double) fallbacks / completed();
+        }
+
+        public double shedRatio() {
+            return completed() == 0 ? 0 : (double) sheds / completed();
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "requests=%d throughput=%.1f/s ok=%d fallback=%d (%.1f%%) shed=%d (%.1f%%) error=%d%n"
+                            + "latency (%s, ms): p50=%.1f p99=%.1f p999=%.1f max=%.1f samples=%d",
+                    completed(), throughput(), ok, fallbacks, fallbackRatio() * 100, sheds, shedRatio() * 100,
+                    errors, method,
+                    percentileMicros(50) / 1000.0, percentileMicros(99) / 1000.0, percentileMicros(99.9) / 1000.0,
+                    (sorted.length == 0 ? 0 : sorted[sorted.length - 1]) / 1000.0, sorted.length);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package iuh.fit.se.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+public class LoadGenerator implements AutoCloseable {
+    // handleFallback trả về chuỗi này khi CircuitBreaker/Retry/RateLimiter/Bulkhead chặn
+    static final String FALLBACK_MARKER = "Hệ thống đang bảo trì";
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(executor)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final HttpRequest request;
+
+    public LoadGenerator(URI target) {
+        this(target, 0);
+    }
+
+    public LoadGenerator(URI target, long deadlineMs) {
+        this(target, deadlineMs, null, null);
+    }
+
+    // deadlineMs > 0: gửi kèm X-Request-Deadline-Ms để app bỏ việc khi client đã hết kiên nhẫn
+    // priority != null: gửi kèm X-Priority (CRITICAL, HIGH, NORMAL, BACKGROUND) cho admission control
+    // priorityToken != null: gửi kèm X-Priority-Token, thiếu token thì app hạ CRITICAL/HIGH về NORMAL
+    public LoadGenerator(URI target, long deadlineMs, String priority, String priorityToken) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(target).timeout(Duration.ofSeconds(60)).GET();
+        if (deadlineMs > 0) {
+            builder.header("X-Request-Deadline-Ms", Long.toString(deadlineMs));
+        }
+        if (priority != null) {
+            builder.header("X-Priority", priority);
+        }
+        if (priorityToken != null) {
+            builder.header("X-Priority-Token", priorityToken);
+        }
+        this.request = builder.build();
+    }
+
+    // Open-loop: gửi theo lịch cố định rate req/s bất kể server trả lời nhanh hay chậm.
+    // Latency tính từ thời điểm lẽ ra phải gửi, nên nếu generator bị trễ thì độ trễ đó cũng được tính (không bị CO).
+    public LatencyRecorder.Report openLoop(double ratePerSecond, Duration duration) {
+        LatencyRecorder recorder = new LatencyRecorder("open-loop, from intended send time");
+        long intervalNanos = (long) (1_000_000_000L / ratePerSecond);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        List<CompletableFuture<?>> inFlight = new ArrayList<>();
+        for (long intended = start; intended < end; intended += intervalNanos) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            long scheduledAt = intended;
+            inFlight.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, error) -> {
+                        recorder.record((System.nanoTime() - scheduledAt) / 1_000);
+                        recordOutcome(recorder, response, error);
+                    }));
+        }
+        awaitAll(inFlight);
+        return recorder.report((System.nanoTime() - start) / 1e9);
+    }
+
+    // Closed-loop: concurrency client, mỗi client gửi request tiếp theo ngay khi nhận được response.
+    // expectedInterval > 0 thì bù coordinated omission theo nhịp gửi mong muốn của mỗi client.
+    public LatencyRecorder.Report closedLoop(int concurrency, Duration duration, Duration expectedInterval)
+            throws InterruptedException {
+        long expectedMicros = expectedInterval.toNanos() / 1_000;
+        // interval = 0 thì không có nhịp mong muốn để bù: báo rõ là số liệu chưa sửa CO
+        LatencyRecorder recorder = new LatencyRecorder(expectedMicros > 0
+                ? "closed-loop, CO-corrected at " + expectedInterval.toMillis() + "ms interval"
+                : "closed-loop, NOT CO-corrected (interval=0)");
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            workers.add(Thread.ofVirtual().name("load-" + i).start(() -> {
+                while (System.nanoTime() < end) {
+                    long sentAt = System.nanoTime();
+                    HttpResponse<String> response = null;
+                    Throwable error = null;
+                    try {
+                        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    } catch (Exception e) {
+                        error = e;
+                    }
+                    recorder.recordCorrected((System.nanoTime() - sentAt) / 1_000, expectedMicros);
+                    recordOutcome(recorder, response, error);
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return recorder.report((System.nanoTime() - start) / 1e9);
+    }
+
+    private static void recordOutcome(LatencyRecorder recorder, HttpResponse<String> response, Throwable error) {
+        if (error == null && response.statusCode() == 503) {
+            recorder.shed();
+        } else if (error != null || response.statusCode() != 200) {
+            recorder.outcome(false, false);
+        } else {
+            recorder.outcome(true, response.body().contains(FALLBACK_MARKER));
+        }
+    }
+
+    private static void awaitAll(List<CompletableFuture<?>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                    .get(2, TimeUnit.MINUTES);
+        } catch (Exception ignored) {
+            // lỗi từng request đã được ghi trong whenComplete
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,112 @@
+package iuh.fit.se.loadtest;
+
+import iuh.fit.se.FaultToleranceWithResilience4jApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * ./gradlew loadTest -PloadArgs="mode=open rate=50 duration=30 latency=lognormal:50:0.8 errorRate=0.5"
+ * ./gradlew loadTest -PloadArgs="mode=closed concurrency=10000 latency=fixed:1000 errorRate=0 profiles=default,virtual"
+ *
+ * mode        open | closed
+ * rate        req/s cho open-loop
+ * concurrency số client cho closed-loop
+ * interval    nhịp mong muốn (ms) của mỗi client closed-loop, dùng để sửa coordinated omission (0 = tắt)
+ * duration    giây
+ * latency     fixed:N | uniform:MIN:MAX | exp:MEAN | lognormal:MEDIAN:SIGMA | bimodal:FAST:SLOW:RATIO
+ * errorRate   tỉ lệ stub trả 500 (Node.js Service B đang dùng 0.5)
+ * stubPort    0 = cổng ngẫu nhiên
+ * target      URL /test-fault-tolerance có sẵn; bỏ trống thì tự chạy app trong process
+ * deadlineMs  gửi header X-Request-Deadline-Ms (0 = không gửi)
+ * priority    gửi header X-Priority, vd BACKGROUND (bỏ trống = không gửi, app coi là NORMAL)
+ * priorityToken gửi header X-Priority-Token; app chạy trong process nhận luôn token này làm admission.trusted-token,
+ *             thiếu token thì CRITICAL/HIGH bị hạ về NORMAL
+ * profiles    so sánh nhiều chế độ chạy app, vd "default,virtual" (application-virtual.properties)
+ */
+public class LoadTest {
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                opts.put(arg.substring(0, eq).replaceFirst("^--", ""), arg.substring(eq + 1));
+            }
+        }
+        String mode = opts.getOrDefault("mode", "open");
+        Duration duration = Duration.ofSeconds(Long.parseLong(opts.getOrDefault("duration", "30")));
+        LatencyModel latency = LatencyModel.parse(opts.getOrDefault("latency", "fixed:20"));
+        double errorRate = Double.parseDouble(opts.getOrDefault("errorRate", "0.5"));
+
+        List<String> summary = new ArrayList<>();
+        for (String profile : opts.getOrDefault("profiles", "default").split(",")) {
+            try (StubBackend stub = new StubBackend(Integer.parseInt(opts.getOrDefault("stubPort", "0")),
+                    latency, errorRate);
+                 PlatformThreadSampler sampler = new PlatformThreadSampler()) {
+                String target = opts.get("target");
+                int appPort = 0;
+                if (target == null) {
+                    appPort = freePort();
+                    target = "http://localhost:" + appPort + "/test-fault-tolerance";
+                }
+                System.out.printf("Load test [%s] %s -> %s (stub latency=%s, errorRate=%.2f)%n",
+                        profile, mode, target, opts.getOrDefault("latency", "fixed:20"), errorRate);
+                LatencyRecorder.Report report;
+                // Generator tạo trước app để thread của nó (HttpClient selector) nằm trong baseline của load tool
+                try (LoadGenerator generator = new LoadGenerator(URI.create(target),
+                        Long.parseLong(opts.getOrDefault("deadlineMs", "0")), opts.get("priority"),
+                        opts.get("priorityToken"))) {
+                    sampler.baseline();
+                    ConfigurableApplicationContext app = null;
+                    if (appPort != 0) {
+                        app = SpringApplication.run(FaultToleranceWithResilience4jApplication.class,
+                                "--server.port=" + appPort,
+                                "--spring.profiles.active=" + profile,
+                                "--service-b.url=http://localhost:" + stub.port() + "/api/data",
+                                "--admission.trusted-token=" + opts.getOrDefault("priorityToken", ""));
+                    }
+                    try {
+                        if ("closed".equals(mode)) {
+                            report = generator.closedLoop(Integer.parseInt(opts.getOrDefault("concurrency", "20")),
+                                    duration, Duration.ofMillis(Long.parseLong(opts.getOrDefault("interval", "0"))));
+                        } else {
+                            report = generator.openLoop(Double.parseDouble(opts.getOrDefault("rate", "50")),
+                                    duration);
+                        }
+                    } finally {
+                        if (app != null) {
+                            app.close();
+                        }
+                    }
+                }
+                System.out.println(report);
+                System.out.printf("stub: requests=%d injected500=%d | peak platform threads: app=%d "
+                                + "virtual-thread carriers (shared)=%d load tool=%d%n%n",
+                        stub.requests(), stub.errors(), sampler.peakApp(), sampler.peakCarriers(),
+                        sampler.toolThreads());
+                summary.add(String.format("%-10s %10.1f %9.1f %9.1f %9.1f%% %9.1f%% %10d %9d", profile,
+                        report.throughput(),
+                        report.percentileMicros(50) / 1000.0, report.percentileMicros(99) / 1000.0,
+                        report.fallbackRatio() * 100, report.shedRatio() * 100, sampler.peakApp(), sampler.peakCarriers()));
+            }
+        }
+        // Bảng so sánh các profile (vd default vs virtual) trên cùng kịch bản tải
+        System.out.printf("%-10s %10s %9s %9s %10s %10s %10s %9s%n",
+                "profile", "req/s", "p50 ms", "p99 ms", "fallback", "shed", "app thr", "carriers");
+        summary.forEach(System.out::println);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package iuh.fit.se.loadtest;
+
+import java.util.HashSet;
+import java.util.Set;
+
+// Đo peak platform thread của riêng app trong lúc chạy tải. Các thread có sẵn trước khi app start
+// (main, stub, HttpClient của generator, chính sampler) là của load tool; carrier của virtual thread
+// dùng chung cho app, stub và generator nên được báo riêng.
+class PlatformThreadSampler implements AutoCloseable {
+    private static final String CARRIER_PREFIX = "ForkJoinPool-";
+
+    private final Thread sampler;
+    private final Set<Long> toolThreads = new HashSet<>();
+    private volatile boolean running = true;
+    private volatile boolean baselineTaken;
+    private int peakApp;
+    private int peakCarriers;
+
+    PlatformThreadSampler() {
+        sampler = new Thread(this::sampleLoop, "thread-sampler");
+        sampler.setDaemon(true);
+        sampler.start();
+    }
+
+    // Gọi ngay trước khi start app
+    synchronized void baseline() {
+        for (Thread t : Thread.getAllStackTraces().keySet()) {
+            if (!t.getName().startsWith(CARRIER_PREFIX)) {
+                toolThreads.add(t.threadId());
+            }
+        }
+        baselineTaken = true;
+    }
+
+    private void sampleLoop() {
+        while (running) {
+            if (baselineTaken) {
+                sample();
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private synchronized void sample() {
+        int app = 0;
+        int carriers = 0;
+        // getAllStackTraces chỉ trả platform thread, virtual thread không nằm trong đó
+        for (Thread t : Thread.getAllStackTraces().keySet()) {
+            if (t.getName().startsWith(CARRIER_PREFIX)) {
+                carriers++;
+            } else if (!toolThreads.contains(t.threadId())) {
+                app++;
+            }
+        }
+        peakApp = Math.max(peakApp, app);
+        peakCarriers = Math.max(peakCarriers, carriers);
+    }
+
+    synchronized int peakApp() {
+        return peakApp;
+    }
+
+    synchronized int peakCarriers() {
+        return peakCarriers;
+    }
+
+    synchronized int toolThreads() {
+        return toolThreads.size();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        sampler.interrupt();
+        try {
+            sampler.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sample();
+    }
+}
@@ -0,0 +1,67 @@
+package iuh.fit.se.loadtest;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Thay cho Node.js Service B: GET /api/data với độ trễ và tỉ lệ lỗi 500 cấu hình được
+public class StubBackend implements AutoCloseable {
+    private static final byte[] OK = "Xin chào! Đây là dữ liệu từ Node.js Service.".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ERROR = "Internal Server Error từ stub".getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer server;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    public StubBackend(int port, LatencyModel latency, double errorRate) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", port), 1024);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/api/data", exchange -> {
+            requests.increment();
+            try {
+                long delay = latency.sampleMillis();
+                if (delay > 0) {
+                    Thread.sleep(delay);
+                }
+                boolean fail = ThreadLocalRandom.current().nextDouble() < errorRate;
+                byte[] body = fail ? ERROR : OK;
+                if (fail) {
+                    errors.increment();
+                }
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+                exchange.sendResponseHeaders(fail ? 500 : 200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public long requests() {
+        return requests.sum();
+    }
+
+    public long errors() {
+        return errors.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,220 @@
+package iuh.fit.se.admission;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Giới hạn số request đang chạy; request phải chờ được xếp hàng theo priority.
+// Kiểu CoDel: nếu thời gian chờ trong hàng liên tục vượt target suốt một interval thì cắt thêm một tầng
+// priority thấp nhất (shed), thời gian chờ xuống dưới target suốt một interval thì mở lại một tầng.
+// CRITICAL không bao giờ bị cắt theo CoDel, chỉ có thể hết thời gian chờ.
+@Component
+public final class AdmissionController {
+    private static final Priority[] TIERS = Priority.values();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<Waiter>[] queues;
+    private final long targetNanos;
+    private final long intervalNanos;
+    private final long maxWaitNanos;
+    private final Timer[] queueDelay;
+    private final MeterRegistry meterRegistry;
+
+    private int available;
+    private volatile int shedLevel;
+    private long aboveTargetSince;
+    private long belowTargetSince;
+
+    private static final class Waiter {
+        final Condition granted;
+        final long enqueuedAt = System.nanoTime();
+        boolean done;
+        boolean admitted;
+
+        Waiter(Condition granted) {
+            this.granted = granted;
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public AdmissionController(MeterRegistry meterRegistry,
+                               @Value("${admission.max-concurrent:10}") int maxConcurrent,
+                               @Value("${admission.max-wait-ms:1000}") long maxWaitMs,
+                               @Value("${admission.target-delay-ms:5}") long targetDelayMs,
+                               @Value("${admission.interval-ms:100}") long intervalMs) {
+        this.meterRegistry = meterRegistry;
+        this.available = maxConcurrent;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.targetNanos = TimeUnit.MILLISECONDS.toNanos(targetDelayMs);
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMs);
+        this.queues = new ArrayDeque[TIERS.length];
+        this.queueDelay = new Timer[TIERS.length];
+        for (Priority p : TIERS) {
+            queues[p.ordinal()] = new ArrayDeque<>();
+            queueDelay[p.ordinal()] = Timer.builder("admission.queue.delay")
+                    .tag("priority", p.name())
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry);
+        }
+        meterRegistry.gauge("admission.shed.level", this, c -> c.shedLevel);
+    }
+
+    // Trả về bình thường = đã có permit, phải gọi release(); ném AdmissionRejectedException nếu bị shed/hết thời gian chờ
+    public void acquire(Priority priority, long maxWaitNanos) throws InterruptedException {
+        if (isShed(priority) && !recoverWhenIdle(priority)) {
+            throw reject(priority, "shed");
+        }
+        long wait = Math.min(this.maxWaitNanos, maxWaitNanos);
+        lock.lock();
+        try {
+            if (available > 0 && !hasWaitersAtOrAbove(priority)) {
+                available--;
+                onDequeue(0);
+                queueDelay[priority.ordinal()].record(0, TimeUnit.NANOSECONDS);
+                return;
+            }
+            Waiter waiter = new Waiter(lock.newCondition());
+            queues[priority.ordinal()].addLast(waiter);
+            long remaining = wait;
+            try {
+                while (!waiter.done && remaining > 0) {
+                    remaining = waiter.granted.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                // bị interrupt: rời hàng; nếu release() vừa kịp trao permit thì chuyển permit cho người kế tiếp
+                if (waiter.admitted) {
+                    grantNext();
+                } else if (!waiter.done) {
+                    queues[priority.ordinal()].remove(waiter);
+                }
+                throw e;
+            }
+            if (!waiter.done) {
+                queues[priority.ordinal()].remove(waiter);
+                throw reject(priority, "queue timeout");
+            }
+            if (!waiter.admitted) {
+                throw reject(priority, "shed");
+            }
+            queueDelay[priority.ordinal()].record(System.nanoTime() - waiter.enqueuedAt, TimeUnit.NANOSECONDS);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release() {
+        lock.lock();
+        try {
+            grantNext();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Gọi khi đang giữ lock: trao permit cho request chờ lâu nhất ở tầng cao nhất, không ai chờ thì trả về pool
+    private void grantNext() {
+        for (ArrayDeque<Waiter> queue : queues) {
+            Waiter next = queue.pollFirst();
+            if (next != null) {
+                onDequeue(System.nanoTime() - next.enqueuedAt);
+                next.done = true;
+                next.admitted = true;
+                next.granted.signal();
+                return;
+            }
+        }
+        available++;
+    }
+
+    // Số request đang chờ ở một tầng (cho test và debug)
+    int queued(Priority priority) {
+        lock.lock();
+        try {
+            return queues[priority.ordinal()].size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int shedLevel() {
+        return shedLevel;
+    }
+
+    private boolean isShed(Priority priority) {
+        return priority != Priority.CRITICAL && priority.ordinal() >= TIERS.length - shedLevel;
+    }
+
+    // Hàng rỗng thì coi như một mẫu sojourn = 0 để shedLevel vẫn giảm dần khi chỉ còn traffic đang bị cắt
+    private boolean recoverWhenIdle(Priority priority) {
+        lock.lock();
+        try {
+            if (hasWaitersAtOrAbove(TIERS[TIERS.length - 1])) {
+                return false;
+            }
+            onDequeue(0);
+            return !isShed(priority);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean hasWaitersAtOrAbove(Priority priority) {
+        for (int i = 0; i <= priority.ordinal(); i++) {
+            if (!queues[i].isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Gọi khi đang giữ lock, sojourn = thời gian request vừa ra khỏi hàng đã phải chờ
+    private void onDequeue(long sojournNanos) {
+        long now = System.nanoTime();
+        if (sojournNanos > targetNanos) {
+            belowTargetSince = 0;
+            if (aboveTargetSince == 0) {
+                aboveTargetSince = now;
+            } else if (now - aboveTargetSince >= intervalNanos && shedLevel < TIERS.length - 1) {
+                shedLevel++;
+                aboveTargetSince = now;
+                shedQueued();
+            }
+        } else {
+            aboveTargetSince = 0;
+            if (shedLevel == 0) {
+                return;
+            }
+            if (belowTargetSince == 0) {
+                belowTargetSince = now;
+            } else if (now - belowTargetSince >= intervalNanos) {
+                shedLevel--;
+                belowTargetSince = now;
+            }
+        }
+    }
+
+    // Tầng vừa bị cắt: trả ngay các request đang chờ của tầng đó về fallback thay vì để chúng chờ tiếp
+    private void shedQueued() {
+        for (Priority p : TIERS) {
+            if (!isShed(p)) {
+                continue;
+            }
+            Waiter w;
+            while ((w = queues[p.ordinal()].pollFirst()) != null) {
+                w.done = true;
+                w.granted.signal();
+            }
+        }
+    }
+
+    private AdmissionRejectedException reject(Priority priority, String reason) {
+        meterRegistry.counter("admission.shed", "priority", priority.name(), "reason", reason).increment();
+        return new AdmissionRejectedException(priority, reason);
+    }
+}
@@ -0,0 +1,66 @@
+package iuh.fit.se.admission;
+
+import iuh.fit.se.deadline.RequestDeadline;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+// Đứng trước MyController: phân loại priority theo header X-Priority, xin permit từ AdmissionController.
+// CRITICAL/HIGH chỉ được nhận khi request kèm đúng admission.trusted-token (header X-Priority-Token).
+// Bị shed thì trả 503 + Retry-After, không đi qua Retry/CircuitBreaker/RateLimiter/Bulkhead.
+@Component
+public class AdmissionInterceptor implements HandlerInterceptor {
+    public static final String TOKEN_HEADER = "X-Priority-Token";
+    private static final String ADMITTED = AdmissionInterceptor.class.getName() + ".admitted";
+
+    private final AdmissionController admission;
+    private final byte[] trustedToken;
+    private final String retryAfterSeconds;
+
+    public AdmissionInterceptor(AdmissionController admission,
+                                @Value("${admission.trusted-token:}") String trustedToken,
+                                @Value("${admission.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.admission = admission;
+        this.trustedToken = trustedToken.getBytes(StandardCharsets.UTF_8);
+        this.retryAfterSeconds = Long.toString(retryAfterSeconds);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+        Priority priority = Priority.fromHeader(request.getHeader(Priority.HEADER), isTrusted(request));
+        try {
+            admission.acquire(priority, RequestDeadline.remainingNanos(RequestDeadline.deadlineNanos()));
+        } catch (AdmissionRejectedException e) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getOutputStream().write(e.getMessage().getBytes(StandardCharsets.UTF_8));
+            return false;
+        }
+        request.setAttribute(ADMITTED, Boolean.TRUE);
+        return true;
+    }
+
+    // Không cấu hình token thì không ai được ưu tiên cao hơn NORMAL; so sánh constant-time
+    private boolean isTrusted(HttpServletRequest request) {
+        String token = request.getHeader(TOKEN_HEADER);
+        return trustedToken.length > 0 && token != null
+                && MessageDigest.isEqual(trustedToken, token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (request.getAttribute(ADMITTED) != null) {
+            admission.release();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package iuh.fit.se.admission;
+
+public class AdmissionRejectedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public AdmissionRejectedException(Priority priority, String reason) {
+        super("Request " + priority + " bị từ chối: " + reason);
+    }
+}
@@ -0,0 +1,20 @@
+package iuh.fit.se.admission;
+
+// Thứ tự khai báo = thứ tự ưu tiên; khi quá tải sẽ cắt từ tầng cuối (BACKGROUND) lên
+public enum Priority {
+    CRITICAL, HIGH, NORMAL, BACKGROUND;
+
+    public static final String HEADER = "X-Priority";
+
+    // Client tự khai priority qua header nên chỉ caller tin cậy mới được CRITICAL/HIGH;
+    // caller khác bị hạ về NORMAL (tự hạ xuống BACKGROUND thì vẫn giữ)
+    public static Priority fromHeader(String value, boolean trusted) {
+        Priority priority;
+        try {
+            priority = value == null ? NORMAL : valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return NORMAL;
+        }
+        return trusted || priority.compareTo(NORMAL) >= 0 ? priority : NORMAL;
+    }
+}
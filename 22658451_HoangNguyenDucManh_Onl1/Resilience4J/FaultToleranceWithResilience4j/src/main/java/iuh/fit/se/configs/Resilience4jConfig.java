@@ -1,13 +1,58 @@
 package iuh.fit.se.configs;
 
+import io.github.resilience4j.common.retry.configuration.RetryConfigCustomizer;
+import iuh.fit.se.deadline.RequestDeadline;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class Resilience4jConfig {
+    // Là bean để Spring đóng executor khi context dừng
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+    public ExecutorService httpClientExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    // Executor chạy các attempt của HedgedServiceBClient; request chờ Service B chỉ park virtual thread
+    @Bean(destroyMethod = "close")
+    public ExecutorService serviceBExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    // Chờ giữa 2 lần Retry không vượt quá thời gian còn lại của deadline; hết budget thì lần thử sau bị DeadlineAspect chặn
+    @Bean
+    @SuppressWarnings("unchecked") // RetryConfigCustomizer nhận RetryConfig.Builder dạng raw
+    public RetryConfigCustomizer serviceBRetryWait(@Value("${service-b.retry.wait:2s}") Duration wait) {
+        long waitMillis = wait.toMillis();
+        return RetryConfigCustomizer.of("serviceB", builder -> builder.intervalBiFunction((attempt, result) ->
+                Math.min(waitMillis, TimeUnit.NANOSECONDS.toMillis(
+                        RequestDeadline.remainingNanos(RequestDeadline.deadlineNanos())))));
+    }
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(@Qualifier("httpClientExecutor") ObjectProvider<ExecutorService> httpClientExecutor) {
+        ExecutorService executor = httpClientExecutor.getIfAvailable();
+        if (executor == null) {
+            return new RestTemplate();
+        }
+        // JDK HttpClient chạy trên virtual thread: request chờ Service B chỉ park virtual thread
+        HttpClient client = HttpClient.newBuilder()
+                .executor(executor)
+                .connectTimeout(Duration.ofSeconds(2))
+                .build();
+        return new RestTemplate(new JdkClientHttpRequestFactory(client));
     }
 }
@@ -0,0 +1,31 @@
+package iuh.fit.se.configs;
+
+import iuh.fit.se.admission.AdmissionInterceptor;
+import iuh.fit.se.deadline.DeadlineInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+    private final DeadlineInterceptor deadlineInterceptor;
+    private final AdmissionInterceptor admissionInterceptor;
+    private final boolean admissionEnabled;
+
+    public WebConfig(DeadlineInterceptor deadlineInterceptor, AdmissionInterceptor admissionInterceptor,
+                     @Value("${admission.enabled:true}") boolean admissionEnabled) {
+        this.deadlineInterceptor = deadlineInterceptor;
+        this.admissionInterceptor = admissionInterceptor;
+        this.admissionEnabled = admissionEnabled;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // deadline trước để admission không chờ quá thời gian client còn lại
+        registry.addInterceptor(deadlineInterceptor);
+        if (admissionEnabled) {
+            registry.addInterceptor(admissionInterceptor).addPathPatterns("/test-fault-tolerance");
+        }
+    }
+}
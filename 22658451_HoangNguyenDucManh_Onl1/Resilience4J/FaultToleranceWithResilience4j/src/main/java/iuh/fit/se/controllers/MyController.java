@@ -4,30 +4,48 @@ import io.github.resilience4j.bulkhead.annotation.Bulkhead;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 import io.github.resilience4j.retry.annotation.Retry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import iuh.fit.se.deadline.CheckDeadline;
+import iuh.fit.se.deadline.DeadlineExceededException;
+import iuh.fit.se.services.HedgedServiceBClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.client.RestTemplate;
 
 @RestController
 public class MyController {
 
     @Autowired
-    private RestTemplate restTemplate;
+    private HedgedServiceBClient serviceBClient;
+
+    private final Counter fallbackCounter;
+
+    public MyController(MeterRegistry meterRegistry) {
+        this.fallbackCounter = Counter.builder("serviceB.fallback")
+                .description("Số lần callNodeJs rơi vào handleFallback")
+                .register(meterRegistry);
+    }
 
     @GetMapping("/test-fault-tolerance")
     // Áp dụng đồng thời các cơ chế bảo vệ
     @CircuitBreaker(name = "serviceB", fallbackMethod = "handleFallback")
     @Retry(name = "serviceB")
+    @CheckDeadline
     @RateLimiter(name = "serviceB")
-    @Bulkhead(name = "serviceB")
+    @Bulkhead(name = "serviceB", type = Bulkhead.Type.SEMAPHORE)
     public String callNodeJs() {
-        String url = "http://localhost:3000/api/data";
-        return restTemplate.getForObject(url, String.class);
+        return serviceBClient.get();
     }
 
     // Hàm dự phòng khi Service B bị lỗi hoặc hệ thống ngắt mạch
     public String handleFallback(Throwable t) {
+        fallbackCounter.increment();
         return "Hệ thống đang bảo trì hoặc quá tải. Vui lòng quay lại sau! (Chi tiết: " + t.getMessage() + ")";
     }
+
+    // Hết deadline không phải lỗi của Service B: ném tiếp để trả 504 thay vì nội dung bảo trì với status 200
+    public String handleFallback(DeadlineExceededException e) {
+        throw e;
+    }
 }
@@ -0,0 +1,98 @@
+package iuh.fit.se.deadline;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Chờ permit Bulkhead tối đa service-b.bulkhead.max-wait nhưng không quá thời gian còn lại của deadline.
+// Bulkhead của Resilience4j để max-wait-duration=0 (không tự chờ); aspect này đứng ngay ngoài nó,
+// chờ tới khi có call kết thúc rồi thử lại, hết thời gian chờ thì để BulkheadFullException đi ra như cũ.
+@Aspect
+@Component
+@Order(BulkheadDeadlineAspect.ORDER)
+public class BulkheadDeadlineAspect {
+    public static final int ORDER = 35;
+
+    private final BulkheadRegistry registry;
+    private final long maxWaitNanos;
+    private final Map<String, Waiters> waiters = new ConcurrentHashMap<>();
+
+    public BulkheadDeadlineAspect(BulkheadRegistry registry,
+                                  @Value("${service-b.bulkhead.max-wait:0s}") Duration maxWait) {
+        this.registry = registry;
+        this.maxWaitNanos = maxWait.toNanos();
+    }
+
+    @Around("@annotation(bulkhead)")
+    public Object acquire(ProceedingJoinPoint joinPoint, Bulkhead bulkhead) throws Throwable {
+        if (maxWaitNanos <= 0) {
+            return joinPoint.proceed();
+        }
+        long waitNanos = Math.min(maxWaitNanos, RequestDeadline.remainingNanos(RequestDeadline.deadlineNanos()));
+        long until = System.nanoTime() + waitNanos;
+        Waiters w = waiters.computeIfAbsent(bulkhead.name(), this::waitersFor);
+        while (true) {
+            w.awaitFree(until);
+            try {
+                return joinPoint.proceed();
+            } catch (BulkheadFullException e) {
+                // thua race với request khác: chờ tiếp nếu còn thời gian
+                if (until - System.nanoTime() <= 0) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private Waiters waitersFor(String name) {
+        io.github.resilience4j.bulkhead.Bulkhead bulkhead = registry.bulkhead(name);
+        Waiters w = new Waiters(bulkhead);
+        bulkhead.getEventPublisher().onCallFinished(event -> w.signal());
+        return w;
+    }
+
+    private static final class Waiters {
+        private final io.github.resilience4j.bulkhead.Bulkhead bulkhead;
+        // ReentrantLock thay vì synchronized: request chạy trên virtual thread không bị pin carrier khi chờ
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition freed = lock.newCondition();
+
+        Waiters(io.github.resilience4j.bulkhead.Bulkhead bulkhead) {
+            this.bulkhead = bulkhead;
+        }
+
+        void awaitFree(long until) throws InterruptedException {
+            lock.lock();
+            try {
+                long remaining;
+                while (bulkhead.getMetrics().getAvailableConcurrentCalls() == 0
+                        && (remaining = until - System.nanoTime()) > 0) {
+                    freed.awaitNanos(remaining);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void signal() {
+            lock.lock();
+            try {
+                freed.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
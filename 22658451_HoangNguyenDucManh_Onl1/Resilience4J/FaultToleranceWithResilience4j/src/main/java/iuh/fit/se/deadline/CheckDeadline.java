@@ -0,0 +1,14 @@
+package iuh.fit.se.deadline;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Kiểm tra deadline ở mỗi lần thử của @Retry, trước khi xin permit CircuitBreaker/RateLimiter/Bulkhead (DeadlineAspect)
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CheckDeadline {
+    // tag layer của metric deadline.exceeded
+    String value() default "attempt";
+}
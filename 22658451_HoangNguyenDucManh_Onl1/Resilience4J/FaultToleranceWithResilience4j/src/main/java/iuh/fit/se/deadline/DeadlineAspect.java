@@ -0,0 +1,22 @@
+package iuh.fit.se.deadline;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+// Nằm giữa Retry và CircuitBreaker (thứ tự aspect đặt trong application.properties):
+// request hết hạn bị bỏ trước khi chiếm permit của CircuitBreaker/RateLimiter/Bulkhead
+@Aspect
+@Component
+@Order(DeadlineAspect.ORDER)
+public class DeadlineAspect {
+    public static final int ORDER = 15;
+
+    @Around("@annotation(checkDeadline)")
+    public Object check(ProceedingJoinPoint joinPoint, CheckDeadline checkDeadline) throws Throwable {
+        RequestDeadline.check(checkDeadline.value());
+        return joinPoint.proceed();
+    }
+}
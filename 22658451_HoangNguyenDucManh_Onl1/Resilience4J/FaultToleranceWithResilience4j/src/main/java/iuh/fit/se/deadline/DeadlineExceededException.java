@@ -0,0 +1,21 @@
+package iuh.fit.se.deadline;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Không xử lý thì Spring MVC trả 504 (request bỏ dở vì client đã hết thời gian chờ, không phải fallback 200)
+@ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+public class DeadlineExceededException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final String layer;
+
+    public DeadlineExceededException(String layer) {
+        super("Deadline exceeded at " + layer);
+        this.layer = layer;
+    }
+
+    public String getLayer() {
+        return layer;
+    }
+}
@@ -0,0 +1,46 @@
+package iuh.fit.se.deadline;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+// Đọc deadline từ header (hoặc request.deadline.default-ms), từ chối ngay request đã hết hạn khi vừa tới
+@Component
+public class DeadlineInterceptor implements HandlerInterceptor {
+    private final long defaultBudgetMs;
+
+    public DeadlineInterceptor(@Value("${request.deadline.default-ms:0}") long defaultBudgetMs) {
+        this.defaultBudgetMs = defaultBudgetMs;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+        String header = request.getHeader(RequestDeadline.HEADER);
+        if (header == null && defaultBudgetMs <= 0) {
+            return true;
+        }
+        long budget;
+        try {
+            budget = header != null ? Long.parseLong(header.trim()) : defaultBudgetMs;
+        } catch (NumberFormatException e) {
+            budget = defaultBudgetMs;
+        }
+        if (budget <= 0) {
+            RequestDeadline.exceeded("ingress");
+            response.sendError(HttpStatus.GATEWAY_TIMEOUT.value(), "Deadline exceeded");
+            return false;
+        }
+        RequestDeadline.start(budget);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        RequestDeadline.clear();
+    }
+}
@@ -0,0 +1,46 @@
+package iuh.fit.se.deadline;
+
+import io.micrometer.core.instrument.Metrics;
+
+import java.util.concurrent.TimeUnit;
+
+// Deadline của request hiện tại (theo thread xử lý request). Client gửi thời gian còn lại qua header
+// X-Request-Deadline-Ms; mỗi tầng gọi check() trước khi làm việc và metric deadline.exceeded{layer} đếm số lần bỏ.
+public final class RequestDeadline {
+    public static final String HEADER = "X-Request-Deadline-Ms";
+    public static final long NONE = Long.MAX_VALUE;
+
+    private static final ThreadLocal<Long> DEADLINE_NANOS = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    static void start(long budgetMillis) {
+        DEADLINE_NANOS.set(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis));
+    }
+
+    static void clear() {
+        DEADLINE_NANOS.remove();
+    }
+
+    // Thời điểm hết hạn theo System.nanoTime(), NONE nếu request không có deadline
+    public static long deadlineNanos() {
+        Long deadline = DEADLINE_NANOS.get();
+        return deadline == null ? NONE : deadline;
+    }
+
+    public static long remainingNanos(long deadlineNanos) {
+        return deadlineNanos == NONE ? NONE : Math.max(0, deadlineNanos - System.nanoTime());
+    }
+
+    public static void check(String layer) {
+        if (remainingNanos(deadlineNanos()) == 0) {
+            throw exceeded(layer);
+        }
+    }
+
+    public static DeadlineExceededException exceeded(String layer) {
+        Metrics.counter("deadline.exceeded", "layer", layer).increment();
+        return new DeadlineExceededException(layer);
+    }
+}
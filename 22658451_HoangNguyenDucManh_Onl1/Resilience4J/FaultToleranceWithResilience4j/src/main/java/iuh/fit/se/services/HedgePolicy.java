@@ -0,0 +1,71 @@
+package iuh.fit.se.services;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Budget token và ngưỡng hedge theo percentile cho HedgedServiceBClient.
+public class HedgePolicy {
+    private static final int WINDOW = 1024;
+    private static final int RECOMPUTE_EVERY = 128;
+    // 1 hedge = TOKEN; mỗi request nạp budgetRatio * TOKEN, tối đa tích lũy 10 hedge
+    private static final long TOKEN = 1000;
+    private static final long MAX_TOKENS = 10 * TOKEN;
+
+    private final double percentile;
+    private final long tokensPerRequest;
+    private final AtomicLong tokens = new AtomicLong(MAX_TOKENS);
+    private final AtomicLongArray recent = new AtomicLongArray(WINDOW);
+    private final AtomicInteger recorded = new AtomicInteger();
+    private volatile long thresholdNanos;
+
+    public HedgePolicy(double percentile, double budgetRatio, long initialThresholdMillis) {
+        this.percentile = percentile;
+        this.tokensPerRequest = (long) (budgetRatio * TOKEN);
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(initialThresholdMillis);
+    }
+
+    // Gọi một lần cho mỗi request gốc
+    public void onRequest() {
+        long current;
+        do {
+            current = tokens.get();
+            if (current >= MAX_TOKENS) {
+                return;
+            }
+        } while (!tokens.compareAndSet(current, Math.min(MAX_TOKENS, current + tokensPerRequest)));
+    }
+
+    // false = hết budget, không được hedge
+    public boolean tryAcquire() {
+        long current;
+        do {
+            current = tokens.get();
+            if (current < TOKEN) {
+                return false;
+            }
+        } while (!tokens.compareAndSet(current, current - TOKEN));
+        return true;
+    }
+
+    // Cửa sổ WINDOW mẫu gần nhất, cứ RECOMPUTE_EVERY mẫu thì tính lại percentile
+    public void record(long latencyNanos) {
+        int n = recorded.getAndIncrement();
+        recent.set(n & (WINDOW - 1), latencyNanos);
+        if (n > 0 && n % RECOMPUTE_EVERY == 0) {
+            int size = Math.min(n, WINDOW);
+            long[] copy = new long[size];
+            for (int i = 0; i < size; i++) {
+                copy[i] = recent.get(i);
+            }
+            Arrays.sort(copy);
+            thresholdNanos = copy[(int) Math.min(size - 1, Math.ceil(percentile / 100.0 * size) - 1)];
+        }
+    }
+
+    public long thresholdNanos() {
+        return thresholdNanos;
+    }
+}
@@ -0,0 +1,197 @@
+package iuh.fit.se.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import iuh.fit.se.deadline.RequestDeadline;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Gọi Service B có hedge: quá ngưỡng p95 (tự cập nhật) mà chưa có kết quả, hoặc lần đầu lỗi, thì gửi thêm
+// 1 request sang URL khác trong service-b.urls, response về trước thắng, request còn lại bị cancel (interrupt).
+// Budget giới hạn số hedge theo tỉ lệ request để không nhân đôi tải lên Service B khi nó đang chậm.
+// Chỉ có một URL thì hedge bị tắt: gửi lại cùng server không giúp gì cho tail latency.
+@Service
+public class HedgedServiceBClient {
+    private final RestTemplate restTemplate;
+    private final ExecutorService executor;
+    private final List<String> urls;
+    private final boolean hedging;
+    private final HedgePolicy policy;
+    private final AtomicInteger nextUrl = new AtomicInteger();
+
+    private final Counter hedges;
+    private final Counter hedgeWins;
+    private final Counter budgetExhausted;
+
+    public HedgedServiceBClient(RestTemplate restTemplate,
+                                @Qualifier("serviceBExecutor") ExecutorService executor,
+                                MeterRegistry meterRegistry,
+                                @Value("${service-b.urls:${service-b.url:http://localhost:3000/api/data}}") String urls,
+                                @Value("${service-b.hedge.enabled:false}") boolean enabled,
+                                @Value("${service-b.hedge.percentile:95}") double percentile,
+                                @Value("${service-b.hedge.budget-ratio:0.1}") double budgetRatio,
+                                @Value("${service-b.hedge.initial-delay-ms:200}") long initialDelayMs) {
+        this.restTemplate = restTemplate;
+        this.executor = executor;
+        this.urls = Arrays.stream(urls.split(",")).map(String::trim).filter(u -> !u.isEmpty()).toList();
+        this.hedging = enabled && this.urls.size() > 1;
+        this.policy = new HedgePolicy(percentile, budgetRatio, initialDelayMs);
+        this.hedges = meterRegistry.counter("serviceB.hedge.sent");
+        this.hedgeWins = meterRegistry.counter("serviceB.hedge.won");
+        this.budgetExhausted = meterRegistry.counter("serviceB.hedge.budget_exhausted");
+        meterRegistry.gauge("serviceB.hedge.threshold.ms", policy,
+                p -> TimeUnit.NANOSECONDS.toMillis(p.thresholdNanos()));
+    }
+
+    private final class Call {
+        final int primaryIndex;
+        final long deadline;
+        final long start = System.nanoTime();
+        final CompletableFuture<String> result = new CompletableFuture<>();
+        final AtomicInteger pending = new AtomicInteger(1);
+        final AtomicBoolean hedged = new AtomicBoolean();
+        final AtomicReferenceArray<Future<?>> attempts = new AtomicReferenceArray<>(2);
+        // Lỗi gần nhất, ghi trước khi attempt trả pending
+        volatile RuntimeException failure;
+
+        Call(int primaryIndex, long deadline) {
+            this.primaryIndex = primaryIndex;
+            this.deadline = deadline;
+        }
+
+        void cancelAll() {
+            // chặn hedge mới từ attempt bị interrupt bên dưới
+            hedged.set(true);
+            for (int i = 0; i < attempts.length(); i++) {
+                Future<?> attempt = attempts.get(i);
+                if (attempt != null) {
+                    attempt.cancel(true);
+                }
+            }
+        }
+    }
+
+    public String get() {
+        RequestDeadline.check("downstream");
+        int index = Math.floorMod(nextUrl.getAndIncrement(), urls.size());
+        long deadline = RequestDeadline.deadlineNanos();
+        if (!hedging && deadline == RequestDeadline.NONE) {
+            return fetch(urls.get(index), deadline);
+        }
+        if (hedging) {
+            policy.onRequest();
+        }
+        Call call = new Call(index, deadline);
+        submit(call, urls.get(index), false);
+        try {
+            if (hedging) {
+                try {
+                    return call.result.get(Math.min(policy.thresholdNanos(), RequestDeadline.remainingNanos(deadline)),
+                            TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    hedge(call);
+                }
+            }
+            return call.result.get(RequestDeadline.remainingNanos(deadline), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // hết deadline khi đang chờ Service B: bỏ luôn, finally sẽ cancel request đang chạy
+            throw RequestDeadline.exceeded("downstream");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while calling Service B", e);
+        } catch (ExecutionException e) {
+            // giữ nguyên exception gốc để @Retry/@CircuitBreaker xử lý như khi gọi trực tiếp
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            call.cancelAll();
+        }
+    }
+
+    // Mỗi request hedge tối đa một lần, luôn sang URL khác URL của lần đầu.
+    // pending tăng trước khi giành quyền hedge: nếu không, attempt đầu lỗi đúng lúc này sẽ thấy pending = 0
+    // và fail cả request dù hedge sắp được gửi. Mọi nhánh bỏ hedge đều phải trả lại qua release().
+    private void hedge(Call call) {
+        if (!hedging) {
+            return;
+        }
+        call.pending.incrementAndGet();
+        if (!call.hedged.compareAndSet(false, true)) {
+            release(call);
+            return;
+        }
+        if (RequestDeadline.remainingNanos(call.deadline) <= 0) {
+            release(call);
+            return;
+        }
+        if (!policy.tryAcquire()) {
+            budgetExhausted.increment();
+            release(call);
+            return;
+        }
+        hedges.increment();
+        submit(call, urls.get((call.primaryIndex + 1) % urls.size()), true);
+    }
+
+    // Attempt cuối cùng kết thúc mà chưa có kết quả thì request lỗi theo lỗi gần nhất
+    private void release(Call call) {
+        if (call.pending.decrementAndGet() == 0) {
+            call.result.completeExceptionally(call.failure);
+        }
+    }
+
+    private void submit(Call call, String url, boolean hedge) {
+        Future<?> attempt = executor.submit(() -> attempt(call, url, hedge));
+        call.attempts.set(hedge ? 1 : 0, attempt);
+        if (call.result.isDone()) {
+            attempt.cancel(true);
+        }
+    }
+
+    // Chuyển tiếp thời gian còn lại cho Service B để bên đó cũng bỏ việc khi client đã bỏ cuộc
+    private String fetch(String url, long deadline) {
+        HttpHeaders headers = new HttpHeaders();
+        if (deadline != RequestDeadline.NONE) {
+            headers.set(RequestDeadline.HEADER,
+                    Long.toString(TimeUnit.NANOSECONDS.toMillis(RequestDeadline.remainingNanos(deadline))));
+        }
+        return restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), String.class).getBody();
+    }
+
+    private void attempt(Call call, String url, boolean hedge) {
+        try {
+            String body = fetch(url, call.deadline);
+            if (call.result.complete(body)) {
+                policy.record(System.nanoTime() - call.start);
+                if (hedge) {
+                    hedgeWins.increment();
+                }
+            }
+        } catch (RuntimeException e) {
+            call.failure = e;
+            if (!call.result.isDone()) {
+                hedge(call); // lần đầu lỗi thì hedge ngay, không đợi tới ngưỡng
+            }
+            release(call);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package iuh.fit.se.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionControllerTest {
+    private static final long LONG_WAIT = TimeUnit.SECONDS.toNanos(10);
+
+    // 1 permit, target rất lớn để CoDel không can thiệp trừ khi test muốn
+    private static AdmissionController controller(long targetDelayMs, long intervalMs) {
+        return new AdmissionController(new SimpleMeterRegistry(), 1, 10_000, targetDelayMs, intervalMs);
+    }
+
+    private static Thread waiter(AdmissionController admission, Priority priority, List<Priority> admitted,
+                                 AtomicReference<Throwable> failure) {
+        return Thread.ofPlatform().start(() -> {
+            try {
+                admission.acquire(priority, LONG_WAIT);
+                admitted.add(priority);
+                admission.release();
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+    }
+
+    private static void awaitQueued(AdmissionController admission, Priority priority, int count)
+            throws InterruptedException {
+        long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (admission.queued(priority) < count) {
+            assertTrue(System.nanoTime() < until, "waiter " + priority + " never queued");
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    void higherTierIsAdmittedFirstRegardlessOfArrivalOrder() throws Exception {
+        AdmissionController admission = controller(10_000, 10_000);
+        admission.acquire(Priority.NORMAL, LONG_WAIT);
+        List<Priority> admitted = new CopyOnWriteArrayList<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Thread background = waiter(admission, Priority.BACKGROUND, admitted, failure);
+        awaitQueued(admission, Priority.BACKGROUND, 1);
+        Thread normal = waiter(admission, Priority.NORMAL, admitted, failure);
+        awaitQueued(admission, Priority.NORMAL, 1);
+        Thread critical = waiter(admission, Priority.CRITICAL, admitted, failure);
+        awaitQueued(admission, Priority.CRITICAL, 1);
+
+        admission.release();
+        for (Thread t : List.of(background, normal, critical)) {
+            t.join(5_000);
+        }
+        assertEquals(null, failure.get());
+        assertEquals(List.of(Priority.CRITICAL, Priority.NORMAL, Priority.BACKGROUND), admitted);
+    }
+
+    @Test
+    void sustainedQueueDelayShedsLowestTierButNeverCritical() throws Exception {
+        AdmissionController admission = controller(1, 10);
+        admission.acquire(Priority.NORMAL, LONG_WAIT);
+        List<Priority> admitted = new CopyOnWriteArrayList<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        // 2 lần ra khỏi hàng với sojourn > target, cách nhau >= interval: cắt tầng BACKGROUND
+        for (int i = 0; i < 2; i++) {
+            Thread t = Thread.ofPlatform().start(() -> {
+                try {
+                    admission.acquire(Priority.HIGH, LONG_WAIT);
+                    admitted.add(Priority.HIGH);
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            });
+            awaitQueued(admission, Priority.HIGH, 1);
+            Thread.sleep(20);
+            admission.release();
+            t.join(5_000);
+        }
+        assertEquals(null, failure.get());
+        assertEquals(1, admission.shedLevel());
+
+        AdmissionRejectedException rejected = assertThrows(AdmissionRejectedException.class,
+                () -> admission.acquire(Priority.BACKGROUND, LONG_WAIT));
+        assertTrue(rejected.getMessage().contains("shed"), rejected.getMessage());
+
+        admission.release();
+        admission.acquire(Priority.CRITICAL, LONG_WAIT);
+        admission.release();
+    }
+
+    @Test
+    void queueTimeoutLeavesNoWaiterBehind() throws Exception {
+        AdmissionController admission = controller(10_000, 10_000);
+        admission.acquire(Priority.NORMAL, LONG_WAIT);
+
+        AdmissionRejectedException rejected = assertThrows(AdmissionRejectedException.class,
+                () -> admission.acquire(Priority.NORMAL, TimeUnit.MILLISECONDS.toNanos(20)));
+        assertTrue(rejected.getMessage().contains("queue timeout"), rejected.getMessage());
+        assertEquals(0, admission.queued(Priority.NORMAL));
+
+        // permit quay về pool chứ không bị trao cho waiter đã bỏ đi
+        admission.release();
+        admission.acquire(Priority.NORMAL, 0);
+        admission.release();
+    }
+
+    @Test
+    void interruptedWaiterLeavesQueueAndDoesNotSwallowPermit() throws Exception {
+        AdmissionController admission = controller(10_000, 10_000);
+        admission.acquire(Priority.NORMAL, LONG_WAIT);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        Thread t = Thread.ofPlatform().start(() -> {
+            try {
+                admission.acquire(Priority.HIGH, LONG_WAIT);
+            } catch (Throwable e) {
+                failure.set(e);
+            } finally {
+                done.countDown();
+            }
+        });
+        awaitQueued(admission, Priority.HIGH, 1);
+        t.interrupt();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertInstanceOf(InterruptedException.class, failure.get());
+        assertEquals(0, admission.queued(Priority.HIGH));
+
+        admission.release();
+        admission.acquire(Priority.NORMAL, 0);
+        admission.release();
+    }
+}
@@ -0,0 +1,76 @@
+package iuh.fit.se.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionInterceptorTest {
+    @Test
+    void untrustedCallersAreCappedAtNormal() {
+        assertEquals(Priority.NORMAL, Priority.fromHeader("CRITICAL", false));
+        assertEquals(Priority.NORMAL, Priority.fromHeader("high", false));
+        assertEquals(Priority.BACKGROUND, Priority.fromHeader("BACKGROUND", false));
+        assertEquals(Priority.NORMAL, Priority.fromHeader(null, false));
+        assertEquals(Priority.NORMAL, Priority.fromHeader("urgent", true));
+        assertEquals(Priority.CRITICAL, Priority.fromHeader("CRITICAL", true));
+    }
+
+    // Permit duy nhất đang bận: CRITICAL không kèm đúng token xếp hàng ở tầng NORMAL, kèm token thì ở tầng CRITICAL
+    @Test
+    void onlyTheConfiguredTokenIsTrusted() throws Exception {
+        AdmissionController admission = new AdmissionController(new SimpleMeterRegistry(), 1, 10_000, 10_000, 100);
+        AdmissionInterceptor interceptor = new AdmissionInterceptor(admission, "s3cret", 1);
+        admission.acquire(Priority.NORMAL, TimeUnit.SECONDS.toNanos(1));
+
+        Thread forged = Thread.ofPlatform().start(() -> preHandle(interceptor, "guess"));
+        awaitQueued(admission, Priority.NORMAL);
+        Thread trusted = Thread.ofPlatform().start(() -> preHandle(interceptor, "s3cret"));
+        awaitQueued(admission, Priority.CRITICAL);
+        assertEquals(1, admission.queued(Priority.NORMAL));
+
+        forged.interrupt();
+        trusted.interrupt();
+        forged.join();
+        trusted.join();
+    }
+
+    @Test
+    void shedRequestIs503WithRetryAfter() throws Exception {
+        AdmissionController admission = new AdmissionController(new SimpleMeterRegistry(), 1, 20, 10_000, 100);
+        AdmissionInterceptor interceptor = new AdmissionInterceptor(admission, "", 3);
+        admission.acquire(Priority.NORMAL, TimeUnit.SECONDS.toNanos(1));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(new MockHttpServletRequest(), response, null));
+
+        assertEquals(503, response.getStatus());
+        assertEquals("3", response.getHeader("Retry-After"));
+        assertTrue(response.getContentAsString().contains("NORMAL"));
+    }
+
+    private static void preHandle(AdmissionInterceptor interceptor, String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(Priority.HEADER, "CRITICAL");
+        request.addHeader(AdmissionInterceptor.TOKEN_HEADER, token);
+        try {
+            interceptor.preHandle(request, new MockHttpServletResponse(), null);
+        } catch (Exception ignored) {
+            // bị interrupt khi đang xếp hàng: test chỉ kiểm tra request vào hàng nào
+        }
+    }
+
+    private static void awaitQueued(AdmissionController admission, Priority priority) {
+        long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (admission.queued(priority) == 0 && System.nanoTime() < until) {
+            Thread.onSpinWait();
+        }
+        assertEquals(1, admission.queued(priority));
+    }
+}
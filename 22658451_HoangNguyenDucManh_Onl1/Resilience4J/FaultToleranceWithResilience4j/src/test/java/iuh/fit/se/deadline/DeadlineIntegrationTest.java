@@ -0,0 +1,126 @@
+package iuh.fit.se.deadline;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.core.functions.Either;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.retry.RetryRegistry;
+import iuh.fit.se.controllers.MyController;
+import iuh.fit.se.services.HedgedServiceBClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class DeadlineIntegrationTest {
+    @Autowired
+    private MyController controller;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private RateLimiterRegistry rateLimiters;
+    @Autowired
+    private BulkheadRegistry bulkheads;
+    @Autowired
+    private RetryRegistry retries;
+    @Autowired
+    private BulkheadDeadlineAspect bulkheadAspect;
+    @MockitoBean
+    private HedgedServiceBClient serviceB;
+
+    @AfterEach
+    void clearDeadline() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    void expiredAttemptIsRejectedBeforeTakingAnyPermit() {
+        RateLimiter rateLimiter = rateLimiters.rateLimiter("serviceB");
+        Bulkhead bulkhead = bulkheads.bulkhead("serviceB");
+        int permits = rateLimiter.getMetrics().getAvailablePermissions();
+        int calls = bulkhead.getMetrics().getAvailableConcurrentCalls();
+
+        RequestDeadline.start(0);
+        DeadlineExceededException e = assertThrows(DeadlineExceededException.class, controller::callNodeJs);
+
+        assertEquals("attempt", e.getLayer());
+        assertEquals(permits, rateLimiter.getMetrics().getAvailablePermissions());
+        assertEquals(calls, bulkhead.getMetrics().getAvailableConcurrentCalls());
+        verify(serviceB, never()).get();
+    }
+
+    @Test
+    void deadlineExceededDownstreamIsA504NotTheFallbackPage() throws Exception {
+        when(serviceB.get()).thenThrow(new DeadlineExceededException("downstream"));
+        mockMvc.perform(get("/test-fault-tolerance").header(RequestDeadline.HEADER, "5000"))
+                .andExpect(status().isGatewayTimeout());
+    }
+
+    @Test
+    void retryWaitIsCappedByRemainingBudget() {
+        var interval = retries.retry("serviceB").getRetryConfig().getIntervalBiFunction();
+        assertEquals(2000L, interval.apply(1, Either.left(new IllegalStateException())));
+
+        RequestDeadline.start(300);
+        assertThat(interval.apply(1, Either.left(new IllegalStateException()))).isBetween(1L, 300L);
+    }
+
+    // Bulkhead riêng 1 permit, max-wait 5s của aspect bị cắt còn ~200ms theo deadline
+    @Test
+    void bulkheadWaitIsCappedByRemainingBudget() throws Throwable {
+        Bulkhead bulkhead = bulkheads.bulkhead("deadline-test",
+                BulkheadConfig.custom().maxConcurrentCalls(1).maxWaitDuration(Duration.ZERO).build());
+        BulkheadDeadlineAspect aspect = new BulkheadDeadlineAspect(bulkheads, Duration.ofSeconds(5));
+        io.github.resilience4j.bulkhead.annotation.Bulkhead annotation =
+                Annotated.class.getMethod("call").getAnnotation(io.github.resilience4j.bulkhead.annotation.Bulkhead.class);
+        assertThat(bulkheadAspect).isNotNull();
+
+        bulkhead.acquirePermission();
+        RequestDeadline.start(200);
+        long start = System.nanoTime();
+        assertThrows(BulkheadFullException.class, () -> aspect.acquire(
+                new InvokingJoinPoint(() -> bulkhead.executeSupplier(() -> "ok")), annotation));
+        long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertThat(waitedMs).isBetween(150L, 2_000L);
+
+        // có call kết thúc trong lúc chờ thì lấy được permit
+        RequestDeadline.start(2_000);
+        Thread.ofVirtual().start(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ignored) {
+                // bỏ qua
+            }
+            bulkhead.onComplete();
+        });
+        assertEquals("ok", aspect.acquire(new InvokingJoinPoint(() -> bulkhead.executeSupplier(() -> "ok")),
+                annotation));
+    }
+
+    static class Annotated {
+        @io.github.resilience4j.bulkhead.annotation.Bulkhead(name = "deadline-test")
+        public String call() {
+            return "ok";
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package iuh.fit.se.deadline;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.aspectj.lang.reflect.SourceLocation;
+import org.aspectj.runtime.internal.AroundClosure;
+
+import java.util.function.Supplier;
+
+// Join point tối giản cho test aspect: proceed() gọi supplier, mỗi lần proceed là một lần gọi mới
+class InvokingJoinPoint implements ProceedingJoinPoint {
+    private final Supplier<Object> call;
+
+    InvokingJoinPoint(Supplier<Object> call) {
+        this.call = call;
+    }
+
+    @Override
+    public Object proceed() {
+        return call.get();
+    }
+
+    @Override
+    public Object proceed(Object[] args) {
+        return call.get();
+    }
+
+    @Override
+    public void set$AroundClosure(AroundClosure arc) {
+    }
+
+    @Override
+    public String toShortString() {
+        return "call";
+    }
+
+    @Override
+    public String toLongString() {
+        return "call";
+    }
+
+    @Override
+    public Object getThis() {
+        return null;
+    }
+
+    @Override
+    public Object getTarget() {
+        return null;
+    }
+
+    @Override
+    public Object[] getArgs() {
+        return new Object[0];
+    }
+
+    @Override
+    public Signature getSignature() {
+        return null;
+    }
+
+    @Override
+    public SourceLocation getSourceLocation() {
+        return null;
+    }
+
+    @Override
+    public String getKind() {
+        return ProceedingJoinPoint.METHOD_EXECUTION;
+    }
+
+    @Override
+    public StaticPart getStaticPart() {
+        return null;
+    }
+}
@@ -0,0 +1,65 @@
+package iuh.fit.se.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HedgedServiceBClientTest {
+    private static final String A = "http://a/api/data";
+    private static final String B = "http://b/api/data";
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final RestTemplate restTemplate = mock(RestTemplate.class);
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private HedgedServiceBClient client() {
+        return new HedgedServiceBClient(restTemplate, executor, meters, A + "," + B, true, 95, 1.0, 10_000);
+    }
+
+    private void respond(String url, String body) {
+        when(restTemplate.exchange(eq(url), eq(HttpMethod.GET), any(HttpEntity.class), eq(String.class)))
+                .thenReturn(ResponseEntity.ok(body));
+    }
+
+    private void fail(String url) {
+        when(restTemplate.exchange(eq(url), eq(HttpMethod.GET), any(HttpEntity.class), eq(String.class)))
+                .thenThrow(new ResourceAccessException(url + " down"));
+    }
+
+    @Test
+    void failedPrimaryIsHedgedImmediatelyToTheOtherUrl() {
+        fail(A);
+        respond(B, "from b");
+
+        assertEquals("from b", client().get());
+        assertEquals(1, meters.counter("serviceB.hedge.sent").count());
+    }
+
+    @Test
+    void bothUrlsFailingSurfacesTheOriginalException() {
+        fail(A);
+        fail(B);
+
+        assertThrows(ResourceAccessException.class, () -> client().get());
+    }
+}
@@ -1,3 +1,14 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
 // ===== STATE PATTERN =====
 interface OrderState {
     void handle(Order order);
@@ -43,9 +54,7 @@ class DeliveredState implements OrderState {
 class CancelledState implements OrderState {
     @Override
     public void handle(Order order) {
-        System.out.println("Order cancelled. Processing refund...");
-        order.setPaymentStrategy(new RefundPayment());
-        order.processPayment(100);
+        System.out.println("Order cancelled.");
     }
 
     @Override
@@ -73,31 +82,168 @@ class RefundPayment implements PaymentStrategy {
     }
 }
 
+// ===== STATE MACHINE =====
+enum OrderStatus {
+    NEW(new NewOrderState()),
+    PROCESSING(new ProcessingState()),
+    DELIVERED(new DeliveredState()),
+    CANCELLED(new CancelledState());
+
+    private final OrderState handler;
+
+    OrderStatus(OrderState handler) {
+        this.handler = handler;
+    }
+
+    public OrderState handler() {
+        return handler;
+    }
+}
+
+// Side effect chạy SAU khi CAS thành công, không nằm trong transition
+interface TransitionHook {
+    void onTransition(Order order, OrderStatus from, OrderStatus to);
+}
+
+class OrderStateMachine {
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    // allowed[from][to]; chỉ ghi trong Builder, bảng bản sao gán vào final field nên mọi thread thấy đủ sau constructor
+    private final boolean[][] allowed;
+    private volatile TransitionHook[][] hooks = new TransitionHook[STATUSES.length][0];
+
+    private OrderStateMachine(boolean[][] allowed) {
+        this.allowed = new boolean[STATUSES.length][];
+        for (int i = 0; i < STATUSES.length; i++) {
+            this.allowed[i] = allowed[i].clone();
+        }
+    }
+
+    static class Builder {
+        private final boolean[][] allowed = new boolean[STATUSES.length][STATUSES.length];
+
+        public Builder allow(OrderStatus from, OrderStatus... targets) {
+            for (OrderStatus to : targets) {
+                allowed[from.ordinal()][to.ordinal()] = true;
+            }
+            return this;
+        }
+
+        public OrderStateMachine build() {
+            return new OrderStateMachine(allowed);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean canTransition(OrderStatus from, OrderStatus to) {
+        return allowed[from.ordinal()][to.ordinal()];
+    }
+
+    // Đăng ký lúc khởi tạo, copy-on-write để hot path không cần lock
+    public synchronized OrderStateMachine onEnter(OrderStatus to, TransitionHook hook) {
+        TransitionHook[][] copy = hooks.clone();
+        TransitionHook[] current = copy[to.ordinal()];
+        TransitionHook[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = hook;
+        copy[to.ordinal()] = next;
+        hooks = copy;
+        return this;
+    }
+
+    void fireHooks(Order order, OrderStatus from, OrderStatus to) {
+        for (TransitionHook hook : hooks[to.ordinal()]) {
+            hook.onTransition(order, from, to);
+        }
+    }
+
+    // Vào CANCELLED thì hoàn lại số tiền order đã thanh toán (CANCELLED không có transition ra nên chỉ chạy 1 lần)
+    public static OrderStateMachine standard() {
+        return builder()
+                .allow(OrderStatus.NEW, OrderStatus.PROCESSING, OrderStatus.CANCELLED)
+                .allow(OrderStatus.PROCESSING, OrderStatus.DELIVERED, OrderStatus.CANCELLED)
+                .allow(OrderStatus.DELIVERED, OrderStatus.CANCELLED) // trả hàng sau khi giao
+                .build()
+                .onEnter(OrderStatus.CANCELLED, (order, from, to) -> order.refund());
+    }
+}
+
 // ===== CONTEXT =====
 class Order {
-    private OrderState state;
-    private PaymentStrategy paymentStrategy;
+    private static final AtomicReferenceFieldUpdater<Order, OrderStatus> STATUS =
+            AtomicReferenceFieldUpdater.newUpdater(Order.class, OrderStatus.class, "status");
+
+    private static final PaymentStrategy REFUND = new RefundPayment();
+
+    private final long id;
+    private final OrderStateMachine machine;
+    private final PaymentStrategy paymentStrategy;
+    private volatile OrderStatus status = OrderStatus.NEW;
+    private final DoubleAdder paid = new DoubleAdder();
 
-    public Order() {
-        this.state = new NewOrderState();
-        this.paymentStrategy = new NormalPayment();
+    public Order(long id, OrderStateMachine machine) {
+        this(id, machine, new NormalPayment());
     }
 
-    public void setState(OrderState state) {
-        this.state = state;
+    public Order(long id, OrderStateMachine machine, PaymentStrategy paymentStrategy) {
+        this.id = id;
+        this.machine = machine;
+        this.paymentStrategy = paymentStrategy;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    // CAS from -> to; false nếu trạng thái hiện tại không còn là from
+    public boolean compareAndSetStatus(OrderStatus from, OrderStatus to) {
+        if (!machine.canTransition(from, to)) {
+            throw new IllegalStateException("Illegal transition " + from + " -> " + to);
+        }
+        if (!STATUS.compareAndSet(this, from, to)) {
+            return false;
+        }
+        machine.fireHooks(this, from, to);
+        return true;
+    }
+
+    public void setStatus(OrderStatus to) {
+        for (;;) {
+            OrderStatus from = status;
+            if (!machine.canTransition(from, to)) {
+                throw new IllegalStateException("Illegal transition " + from + " -> " + to);
+            }
+            if (STATUS.compareAndSet(this, from, to)) {
+                machine.fireHooks(this, from, to);
+                return;
+            }
+        }
     }
 
     public void processOrder() {
+        OrderState state = status.handler();
         System.out.println("Current State: " + state.getStatus());
         state.handle(this);
     }
 
-    public void setPaymentStrategy(PaymentStrategy paymentStrategy) {
-        this.paymentStrategy = paymentStrategy;
-    }
-
     public void processPayment(double amount) {
         paymentStrategy.pay(amount);
+        paid.add(amount);
+    }
+
+    // Gọi từ hook CANCELLED của OrderStateMachine.standard(); order chưa trả tiền thì không có gì để hoàn
+    void refund() {
+        double amount = paid.sum();
+        if (amount > 0) {
+            System.out.println("Processing refund...");
+            REFUND.pay(amount);
+        }
     }
 }
 
@@ -159,23 +305,324 @@ class ExpressDelivery extends OrderDecorator {
     }
 }
 
+// ===== SHARDED ENGINE =====
+// Multi-producer / single-consumer linked queue (Vyukov): offer = 1 getAndSet, poll chỉ do shard thread gọi
+class MpscQueue<T> {
+    static final class Node<T> {
+        T value;
+        long enqueuedAt;
+        volatile Node<T> next;
+    }
+
+    private final AtomicReference<Node<T>> tail;
+    private Node<T> head;
+
+    MpscQueue() {
+        Node<T> stub = new Node<>();
+        head = stub;
+        tail = new AtomicReference<>(stub);
+    }
+
+    void offer(T value, long enqueuedAt) {
+        Node<T> node = new Node<>();
+        node.value = value;
+        node.enqueuedAt = enqueuedAt;
+        Node<T> prev = tail.getAndSet(node);
+        prev.next = node;
+    }
+
+    // Trả về node đã lấy ra (chỉ gọi từ consumer), null nếu rỗng
+    Node<T> poll() {
+        Node<T> next = head.next;
+        if (next == null) {
+            return null;
+        }
+        head = next;
+        return next;
+    }
+
+    boolean isEmpty() {
+        return head.next == null && tail.get() == head;
+    }
+}
+
+class ShardStats {
+    final int shard;
+    final long processed;
+    final long queueDepth;
+    final double throughputPerSec;
+    final long lastLagNanos;
+    final long maxLagNanos;
+
+    ShardStats(int shard, long processed, long queueDepth, double throughputPerSec, long lastLagNanos, long maxLagNanos) {
+        this.shard = shard;
+        this.processed = processed;
+        this.queueDepth = queueDepth;
+        this.throughputPerSec = throughputPerSec;
+        this.lastLagNanos = lastLagNanos;
+        this.maxLagNanos = maxLagNanos;
+    }
+
+    // Tổng của các shard đã bị thay khi resize, để stats() không mất số liệu cũ
+    static ShardStats retired(long processed, long maxLagNanos) {
+        return new ShardStats(-1, processed, 0, 0, 0, maxLagNanos);
+    }
+
+    @Override
+    public String toString() {
+        if (shard < 0) {
+            return String.format("retired processed=%d maxLag=%dus", processed, maxLagNanos / 1000);
+        }
+        return String.format("shard-%d processed=%d depth=%d throughput=%.0f/s lag=%dus maxLag=%dus",
+                shard, processed, queueDepth, throughputPerSec, lastLagNanos / 1000, maxLagNanos / 1000);
+    }
+}
+
+class OrderShard implements Runnable {
+    private static final int SEALED = 1 << 30;
+
+    private final int index;
+    private final MpscQueue<Runnable> queue = new MpscQueue<>();
+    // số producer đang offer + bit SEALED khi rebalance
+    private final AtomicInteger producers = new AtomicInteger();
+    private final LongAdder enqueued = new LongAdder();
+    private final Thread thread;
+    private volatile boolean parked;
+    private volatile boolean draining;
+    private volatile long processed;
+    private volatile long lastLagNanos;
+    private volatile long maxLagNanos;
+    private volatile long startedAt;
+
+    OrderShard(int index) {
+        this.index = index;
+        this.thread = new Thread(this, "order-shard-" + index);
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        startedAt = System.nanoTime();
+        thread.start();
+    }
+
+    // false nếu shard đã bị seal, caller phải đọc lại bảng shard
+    boolean offer(Runnable update) {
+        int p;
+        do {
+            p = producers.get();
+            if ((p & SEALED) != 0) {
+                return false;
+            }
+        } while (!producers.compareAndSet(p, p + 1));
+        try {
+            queue.offer(update, System.nanoTime());
+            enqueued.increment();
+        } finally {
+            producers.decrementAndGet();
+        }
+        if (parked) {
+            LockSupport.unpark(thread);
+        }
+        return true;
+    }
+
+    // Chặn producer mới, đợi các offer đang chạy xong, rồi xử lý hết queue và dừng thread
+    void sealAndDrain() throws InterruptedException {
+        int p;
+        do {
+            p = producers.get();
+        } while (!producers.compareAndSet(p, p | SEALED));
+        while (producers.get() != SEALED) {
+            Thread.onSpinWait();
+        }
+        draining = true;
+        LockSupport.unpark(thread);
+        thread.join();
+    }
+
+    @Override
+    public void run() {
+        long done = 0;
+        long maxLag = 0;
+        while (true) {
+            MpscQueue.Node<Runnable> node = queue.poll();
+            if (node == null) {
+                if (draining && queue.isEmpty()) {
+                    return;
+                }
+                parked = true;
+                if (queue.isEmpty() && !draining) {
+                    LockSupport.parkNanos(1_000_000);
+                }
+                parked = false;
+                continue;
+            }
+            Runnable update = node.value;
+            node.value = null;
+            long lag = System.nanoTime() - node.enqueuedAt;
+            lastLagNanos = lag;
+            if (lag > maxLag) {
+                maxLag = lag;
+                maxLagNanos = lag;
+            }
+            try {
+                update.run();
+            } catch (RuntimeException e) {
+                System.out.println("Shard " + index + " update failed: " + e.getMessage());
+            }
+            done++;
+            // Publish ngay sau mỗi update để depth = enqueued - processed không bị lệch khi shard đang bận
+            processed = done;
+        }
+    }
+
+    ShardStats stats() {
+        long done = processed;
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+        return new ShardStats(index, done, Math.max(0, enqueued.sum() - done),
+                seconds > 0 ? done / seconds : 0, lastLagNanos, maxLagNanos);
+    }
+}
+
+// Hash orderId vào N shard đơn luồng: cùng order -> cùng shard -> giữ thứ tự, khác order -> song song
+class OrderEngine {
+    private volatile OrderShard[] shards;
+    private volatile boolean closed;
+    private long retiredProcessed;
+    private long retiredMaxLagNanos;
+
+    public OrderEngine(int shardCount) {
+        this.shards = newShards(shardCount);
+        for (OrderShard shard : shards) {
+            shard.start();
+        }
+    }
+
+    private static OrderShard[] newShards(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("shardCount must be > 0");
+        }
+        OrderShard[] result = new OrderShard[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = new OrderShard(i);
+        }
+        return result;
+    }
+
+    static int shardFor(long orderId, int shardCount) {
+        long h = orderId * 0x9E3779B97F4A7C15L;
+        return (int) ((h >>> 32) % shardCount);
+    }
+
+    public void submit(long orderId, Runnable update) {
+        while (true) {
+            if (closed) {
+                throw new RejectedExecutionException("OrderEngine is shut down");
+            }
+            OrderShard[] current = shards;
+            if (current[shardFor(orderId, current.length)].offer(update)) {
+                return;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    public void submit(Order order, OrderStatus to) {
+        submit(order.getId(), () -> order.setStatus(to));
+    }
+
+    // Shard mới nhận update ngay nhưng chỉ chạy sau khi shard cũ xử lý xong -> không đảo thứ tự của order nào
+    public synchronized void resize(int shardCount) throws InterruptedException {
+        if (closed) {
+            throw new RejectedExecutionException("OrderEngine is shut down");
+        }
+        OrderShard[] old = shards;
+        shards = newShards(shardCount);
+        for (OrderShard shard : old) {
+            shard.sealAndDrain();
+            ShardStats last = shard.stats();
+            retiredProcessed += last.processed;
+            retiredMaxLagNanos = Math.max(retiredMaxLagNanos, last.maxLagNanos);
+        }
+        for (OrderShard shard : shards) {
+            shard.start();
+        }
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    public synchronized List<ShardStats> stats() {
+        OrderShard[] current = shards;
+        List<ShardStats> result = new ArrayList<>(current.length + 1);
+        for (OrderShard shard : current) {
+            result.add(shard.stats());
+        }
+        if (retiredProcessed > 0) {
+            result.add(ShardStats.retired(retiredProcessed, retiredMaxLagNanos));
+        }
+        return result;
+    }
+
+    public synchronized void shutdown() throws InterruptedException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (OrderShard shard : shards) {
+            shard.sealAndDrain();
+        }
+    }
+}
+
 // ===== MAIN =====
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws InterruptedException {
 
         System.out.println("=== STATE + STRATEGY DEMO ===");
-        Order order = new Order();
+        Order order = new Order(1, OrderStateMachine.standard());
 
         order.processOrder(); // NEW
+        order.processPayment(100);
 
-        order.setState(new ProcessingState());
+        order.setStatus(OrderStatus.PROCESSING);
         order.processOrder(); // PROCESSING
 
-        order.setState(new DeliveredState());
+        order.setStatus(OrderStatus.DELIVERED);
         order.processOrder(); // DELIVERED
 
-        order.setState(new CancelledState());
-        order.processOrder(); // CANCELLED + REFUND
+        order.setStatus(OrderStatus.CANCELLED); // hook REFUND
+        order.processOrder(); // CANCELLED
+
+        try {
+            order.setStatus(OrderStatus.PROCESSING);
+        } catch (IllegalStateException e) {
+            System.out.println("Rejected: " + e.getMessage());
+        }
+
+        System.out.println("\n=== SHARDED ENGINE DEMO ===");
+        OrderEngine engine = new OrderEngine(4);
+        Order[] orders = new Order[1000];
+        for (int i = 0; i < orders.length; i++) {
+            orders[i] = new Order(i, OrderStateMachine.standard());
+        }
+        for (Order o : orders) {
+            engine.submit(o, OrderStatus.PROCESSING);
+        }
+        engine.resize(8);
+        for (Order o : orders) {
+            engine.submit(o, OrderStatus.DELIVERED);
+        }
+        engine.shutdown();
+        for (ShardStats stats : engine.stats()) {
+            System.out.println(stats);
+        }
+        try {
+            engine.submit(orders[0], OrderStatus.CANCELLED);
+        } catch (RejectedExecutionException e) {
+            System.out.println("Rejected after shutdown: " + e.getMessage());
+        }
 
         System.out.println("\n=== DECORATOR DEMO ===");
         OrderService myOrder = new BasicOrder();
@@ -1,5 +1,9 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.locks.LockSupport;
 
 // Observer
 interface Observer {
@@ -19,12 +23,41 @@ interface Subject {
 class Stock implements Subject {
     private List<Observer> observers = new ArrayList<>();
     private String price;
+    private MarketDataFeed marketData;
+    private final PriceAlertIndex alerts = new PriceAlertIndex();
 
     public void setPrice(String price) {
         this.price = price;
         notifyObservers();
     }
 
+    // Chế độ market data: giá fixed-point (MarketDataFeed.PRICE_SCALE) ghi thẳng vào ring buffer,
+    // không tạo String, không gọi từng Investor trên thread của người bán
+    public MarketDataFeed enableMarketData(int capacity) {
+        marketData = new MarketDataFeed(capacity);
+        return marketData;
+    }
+
+    public void setPrice(long priceFixed) {
+        if (marketData != null) {
+            marketData.publish(priceFixed);
+        } else {
+            setPrice("Price = " + MarketDataFeed.format(priceFixed) + "$");
+        }
+        alerts.onPrice(priceFixed);
+    }
+
+    // Observer chỉ được gọi khi giá đi vào khoảng [lowFixed, highFixed], không nhận mọi lần đổi giá;
+    // giá hiện tại đã nằm trong khoảng thì được gọi ngay trong subscribe.
+    // Long.MIN_VALUE / Long.MAX_VALUE làm cận mở, vd "giá vượt X" = subscribe(o, X, Long.MAX_VALUE)
+    public PriceAlert subscribe(Observer o, long lowFixed, long highFixed) {
+        return alerts.add(o, lowFixed, highFixed);
+    }
+
+    public void unsubscribe(PriceAlert alert) {
+        alerts.remove(alert);
+    }
+
     @Override
     public void attach(Observer o) {
         observers.add(o);
@@ -44,8 +77,11 @@ class Stock implements Subject {
 }
 
 // Concrete Observer
-class Investor implements Observer {
+class Investor implements Observer, MarketDataListener {
     private String name;
+    // Chỉ dispatcher thread sở hữu investor này ghi, đọc lại sau khi dispatcher dừng
+    private long lastPrice;
+    private long received;
 
     public Investor(String name) {
         this.name = name;
@@ -55,12 +91,479 @@ class Investor implements Observer {
     public void update(String state) {
         System.out.println(name + " received update: " + state);
     }
+
+    @Override
+    public void onPrice(long priceFixed, long sequence) {
+        lastPrice = priceFixed;
+        received++;
+    }
+
+    public long lastPrice() {
+        return lastPrice;
+    }
+
+    public long received() {
+        return received;
+    }
+}
+
+// ===== Price alert: chỉ gọi observer có khoảng giá khớp =====
+
+class PriceAlert {
+    final Observer observer;
+    final long low;
+    final long high;
+
+    PriceAlert(Observer observer, long low, long high) {
+        if (low > high) {
+            throw new IllegalArgumentException("low > high: " + low + " > " + high);
+        }
+        this.observer = observer;
+        this.low = low;
+        this.high = high;
+    }
+
+    boolean contains(long price) {
+        return low <= price && price <= high;
+    }
+}
+
+// Alert báo khi giá đi vào khoảng; alert thêm vào lúc giá hiện tại đã nằm trong khoảng thì báo ngay khi add,
+// không đợi giá ra rồi vào lại. Giá tăng từ old lên new thì chỉ những khoảng có low thuộc (old, new]
+// mới có thể vừa đi vào; giá giảm thì chỉ những khoảng có high thuộc [new, old). Alert được sắp theo low và
+// theo high vào mảng long (sắp lại khi danh sách đổi, hiếm hơn nhiều so với đổi giá), nên mỗi tick chỉ là
+// tìm nhị phân + duyệt các cận bị vượt: O(log n + k), không boxing, không tạo view hay iterator.
+class PriceAlertIndex {
+    private final List<PriceAlert> alerts = new ArrayList<>();
+    private boolean dirty;
+    private long[] lows = new long[0];
+    private PriceAlert[] byLow = new PriceAlert[0];
+    private long[] highs = new long[0];
+    private PriceAlert[] byHigh = new PriceAlert[0];
+    // Segment tree max(high) trên thứ tự byLow, chỉ dựng cho giá đầu tiên: tìm mọi khoảng chứa giá trong O(log n + k)
+    private long[] maxHigh;
+    private int leaves;
+    private boolean hasPrice;
+    private long lastPrice;
+    private String message; // chuỗi giá của tick hiện tại, chỉ tạo khi có observer khớp
+
+    PriceAlert add(Observer observer, long low, long high) {
+        PriceAlert alert = new PriceAlert(observer, low, high);
+        alerts.add(alert);
+        dirty = true;
+        if (hasPrice && alert.contains(lastPrice)) {
+            observer.update("Price = " + MarketDataFeed.format(lastPrice) + "$");
+        }
+        return alert;
+    }
+
+    void remove(PriceAlert alert) {
+        if (alerts.remove(alert)) {
+            dirty = true;
+        }
+    }
+
+    int size() {
+        return alerts.size();
+    }
+
+    // Trả về số observer đã được gọi
+    int onPrice(long price) {
+        long previous = lastPrice;
+        boolean first = !hasPrice;
+        hasPrice = true;
+        lastPrice = price;
+        if (alerts.isEmpty() || (!first && price == previous)) {
+            return 0;
+        }
+        if (dirty) {
+            rebuild();
+        }
+        message = null;
+        int notified = 0;
+        if (first) {
+            // Giá đầu tiên: chưa có giá cũ để so, báo mọi khoảng đang chứa giá. Cây chỉ cần đúng một lần
+            buildMaxHigh();
+            notified = stab(1, 0, leaves, upperBound(lows, price), price);
+            maxHigh = null;
+        } else if (price > previous) {
+            for (int i = upperBound(lows, previous); i < lows.length && lows[i] <= price; i++) {
+                notified += fire(byLow[i], price);
+            }
+        } else {
+            for (int i = lowerBound(highs, price); i < highs.length && highs[i] < previous; i++) {
+                notified += fire(byHigh[i], price);
+            }
+        }
+        return notified;
+    }
+
+    private int fire(PriceAlert alert, long price) {
+        if (!alert.contains(price)) {
+            return 0;
+        }
+        if (message == null) {
+            message = "Price = " + MarketDataFeed.format(price) + "$";
+        }
+        alert.observer.update(message);
+        return 1;
+    }
+
+    // Các alert ở vị trí [lo, hi) của byLow, chỉ tính vị trí < limit (low <= price), có high >= price
+    private int stab(int node, int lo, int hi, int limit, long price) {
+        if (lo >= limit || maxHigh[node] < price) {
+            return 0;
+        }
+        if (hi - lo == 1) {
+            return fire(byLow[lo], price);
+        }
+        int mid = (lo + hi) >>> 1;
+        return stab(2 * node, lo, mid, limit, price) + stab(2 * node + 1, mid, hi, limit, price);
+    }
+
+    // Sắp ổn định (mergesort) nên alert cùng cận vẫn được gọi theo thứ tự subscribe
+    private void rebuild() {
+        byLow = alerts.toArray(new PriceAlert[0]);
+        Arrays.sort(byLow, (x, y) -> Long.compare(x.low, y.low));
+        byHigh = alerts.toArray(new PriceAlert[0]);
+        Arrays.sort(byHigh, (x, y) -> Long.compare(x.high, y.high));
+        int n = byLow.length;
+        lows = new long[n];
+        highs = new long[n];
+        for (int i = 0; i < n; i++) {
+            lows[i] = byLow[i].low;
+            highs[i] = byHigh[i].high;
+        }
+        dirty = false;
+    }
+
+    private void buildMaxHigh() {
+        int n = byLow.length;
+        leaves = n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+        maxHigh = new long[2 * leaves];
+        Arrays.fill(maxHigh, Long.MIN_VALUE);
+        for (int i = 0; i < n; i++) {
+            maxHigh[leaves + i] = byLow[i].high;
+        }
+        for (int i = leaves - 1; i >= 1; i--) {
+            maxHigh[i] = Math.max(maxHigh[2 * i], maxHigh[2 * i + 1]);
+        }
+    }
+
+    // Vị trí đầu tiên có a[i] > key
+    private static int upperBound(long[] a, long key) {
+        int lo = 0;
+        int hi = a.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] <= key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // Vị trí đầu tiên có a[i] >= key
+    private static int lowerBound(long[] a, long key) {
+        int lo = 0;
+        int hi = a.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
+
+// ===== Market data: ring buffer + conflation =====
+
+// Listener nhận giá dạng long, không boxing, không String
+interface MarketDataListener {
+    void onPrice(long priceFixed, long sequence);
+}
+
+// Ring buffer một producer kiểu disruptor: mảng long cấp phát sẵn, cursor publish bằng release-store.
+// Producer không bao giờ chờ consumer; consumer chậm bị vượt vòng thì nhảy thẳng tới giá mới nhất.
+class MarketDataFeed {
+    public static final long PRICE_SCALE = 10_000; // 4 chữ số thập phân
+
+    private static final VarHandle CURSOR;
+
+    static {
+        try {
+            CURSOR = MethodHandles.lookup().findVarHandle(MarketDataFeed.class, "cursor", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final long[] prices;
+    private final int mask;
+    // Padding để cursor không chung cache line với prices/mask mà consumer đọc liên tục
+    @SuppressWarnings("unused")
+    private long p1, p2, p3, p4, p5, p6, p7;
+    private volatile long cursor = -1;
+    @SuppressWarnings("unused")
+    private long q1, q2, q3, q4, q5, q6, q7;
+    private long next; // chỉ producer dùng
+
+    public MarketDataFeed(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity phải là lũy thừa của 2: " + capacity);
+        }
+        this.prices = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    public static long toFixed(double price) {
+        return Math.round(price * PRICE_SCALE);
+    }
+
+    public static String format(long priceFixed) {
+        // dấu lấy riêng: phần nguyên của -0.5 là 0, tự nó không mang dấu trừ
+        return String.format("%s%d.%04d", priceFixed < 0 ? "-" : "",
+                Math.abs(priceFixed / PRICE_SCALE), Math.abs(priceFixed % PRICE_SCALE));
+    }
+
+    // Chỉ gọi từ một thread
+    public void publish(long priceFixed) {
+        long seq = next++;
+        prices[(int) seq & mask] = priceFixed;
+        CURSOR.setRelease(this, seq);
+    }
+
+    public long cursor() {
+        return (long) CURSOR.getAcquire(this);
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    long priceAt(long sequence) {
+        return prices[(int) sequence & mask];
+    }
+
+    // Gọi ngay sau priceAt(sequence): true nếu producer có thể đã ghi đè ô đó trong lúc đọc.
+    // Producer ghi ô cursor+1 trước khi publish, nên cursor = sequence + capacity - 1 đã là không an toàn.
+    boolean overwritten(long sequence) {
+        VarHandle.acquireFence(); // lần đọc ô giá (plain) không được trôi ra sau lần đọc lại cursor
+        return cursor() - sequence >= mask;
+    }
+}
+
+// Vị trí đọc riêng của từng investor. conflate = true: mỗi lần poll chỉ nhận giá mới nhất
+class MarketDataSubscription {
+    private final MarketDataFeed feed;
+    private final MarketDataListener listener;
+    // Chỉ thread đang poll đọc/ghi; đổi shard được publish qua mảng volatile của shard mới
+    private boolean conflate;
+    private long sequence = -1;
+    // Số giá bị bỏ qua: do conflate, hoặc do bị producer vượt vòng (cả subscription không conflate)
+    private long skipped;
+    private int slowPolls; // số batch chậm liên tiếp, chỉ shard đang poll dùng
+
+    MarketDataSubscription(MarketDataFeed feed, MarketDataListener listener, boolean conflate) {
+        this.feed = feed;
+        this.listener = listener;
+        this.conflate = conflate;
+    }
+
+    // Trả về số giá đã giao; chỉ một dispatcher thread gọi cho mỗi subscription
+    int poll(int maxBatch) {
+        long available = feed.cursor();
+        if (available <= sequence) {
+            return 0;
+        }
+        if (!conflate && available - sequence < feed.capacity()) {
+            long end = Math.min(available, sequence + maxBatch);
+            int delivered = 0;
+            for (long s = sequence + 1; s <= end; s++) {
+                long price = feed.priceAt(s);
+                if (feed.overwritten(s)) {
+                    // Producer đã ghi đè ô này trong lúc đọc: bỏ phần còn lại, nhảy tới giá mới nhất
+                    return delivered + latest();
+                }
+                listener.onPrice(price, s);
+                sequence = s;
+                delivered++;
+            }
+            return delivered;
+        }
+        return latest();
+    }
+
+    private int latest() {
+        while (true) {
+            long available = feed.cursor();
+            long price = feed.priceAt(available);
+            if (!feed.overwritten(available)) {
+                skipped += available - sequence - 1;
+                sequence = available;
+                listener.onPrice(price, available);
+                return 1;
+            }
+        }
+    }
+
+    long skipped() {
+        return skipped;
+    }
+
+    // Trả về true khi đủ số batch chậm liên tiếp; một lần chậm lẻ (GC, bị preempt) không tính
+    boolean recordPoll(boolean slow, int strikes) {
+        slowPolls = slow ? slowPolls + 1 : 0;
+        return slowPolls >= strikes;
+    }
+
+    // Consumer bị đánh dấu chậm: từ giờ chỉ nhận giá mới nhất
+    void forceConflate() {
+        conflate = true;
+    }
+}
+
+// Vài thread chia nhau hàng nghìn subscription, mỗi thread quét lần lượt các subscription của mình.
+// Listener nào xử lý SLOW_STRIKES batch liên tiếp, mỗi batch quá SLOW_POLL_NANOS, bị chuyển sang shard riêng
+// cho consumer chậm và chỉ nhận giá mới nhất, để nó không giữ chân các investor khác cùng shard.
+class MarketDataDispatcher implements AutoCloseable {
+    private static final int MAX_BATCH = 64;
+    private static final long SLOW_POLL_NANOS = 1_000_000;
+    private static final int SLOW_STRIKES = 3;
+
+    private final MarketDataFeed feed;
+    private final Shard[] shards;
+    private final Shard slow;
+    private int nextShard;
+
+    private final class Shard implements Runnable {
+        // Copy-on-write: thread dispatch duyệt mảng không cần khóa
+        volatile MarketDataSubscription[] subscriptions = new MarketDataSubscription[0];
+        volatile boolean running = true;
+        final Thread thread;
+        final boolean isolatesSlow;
+
+        Shard(String name, boolean isolatesSlow) {
+            this.isolatesSlow = isolatesSlow;
+            thread = new Thread(this, name);
+            thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            int idle = 0;
+            while (running) {
+                int delivered = 0;
+                for (MarketDataSubscription s : subscriptions) {
+                    if (isolatesSlow) {
+                        delivered += s.poll(MAX_BATCH);
+                        continue;
+                    }
+                    long start = System.nanoTime();
+                    int n = s.poll(MAX_BATCH);
+                    if (n > 0 && s.recordPoll(System.nanoTime() - start > SLOW_POLL_NANOS, SLOW_STRIKES)) {
+                        isolate(this, s);
+                    }
+                    delivered += n;
+                }
+                if (delivered > 0) {
+                    idle = 0;
+                } else if (++idle < 100) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(50_000);
+                }
+            }
+        }
+    }
+
+    public MarketDataDispatcher(MarketDataFeed feed, int threads) {
+        this.feed = feed;
+        this.shards = new Shard[threads];
+        for (int i = 0; i < threads; i++) {
+            shards[i] = new Shard("market-data-" + i, false);
+            shards[i].thread.start();
+        }
+        this.slow = new Shard("market-data-slow", true);
+        slow.thread.start();
+    }
+
+    public synchronized MarketDataSubscription subscribe(MarketDataListener listener, boolean conflate) {
+        MarketDataSubscription subscription = new MarketDataSubscription(feed, listener, conflate);
+        add(shards[nextShard++ % shards.length], subscription);
+        return subscription;
+    }
+
+    public synchronized void unsubscribe(MarketDataSubscription subscription) {
+        for (Shard shard : shards) {
+            if (remove(shard, subscription)) {
+                return;
+            }
+        }
+        remove(slow, subscription);
+    }
+
+    // Số subscription đang ở shard consumer chậm
+    public int slowSubscribers() {
+        return slow.subscriptions.length;
+    }
+
+    // Gọi từ thread của from, ngay sau khi nó poll xong s: từ đây chỉ shard slow poll s
+    private synchronized void isolate(Shard from, MarketDataSubscription s) {
+        if (remove(from, s)) {
+            s.forceConflate();
+            add(slow, s);
+        }
+    }
+
+    private static void add(Shard shard, MarketDataSubscription subscription) {
+        MarketDataSubscription[] current = shard.subscriptions;
+        MarketDataSubscription[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = subscription;
+        shard.subscriptions = updated;
+    }
+
+    private static boolean remove(Shard shard, MarketDataSubscription subscription) {
+        MarketDataSubscription[] current = shard.subscriptions;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == subscription) {
+                MarketDataSubscription[] updated = new MarketDataSubscription[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                shard.subscriptions = updated;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void close() {
+        for (Shard shard : shards) {
+            shard.running = false;
+        }
+        slow.running = false;
+        try {
+            for (Shard shard : shards) {
+                shard.thread.join();
+            }
+            slow.thread.join();
+        } catch (InterruptedException e) {
+            // thread dispatch là daemon: không chờ nữa, giữ lại trạng thái interrupt cho caller
+            Thread.currentThread().interrupt();
+        }
+    }
 }
 
 // Demo
 
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws InterruptedException {
         Stock stock = new Stock();
 
         Investor a = new Investor("Alice");
@@ -70,5 +573,87 @@ public class Main {
         stock.attach(b);
 
         stock.setPrice("Price = 120$");
+
+        priceAlertDemo();
+        marketDataDemo();
+    }
+
+    // 100k alert trên một mã, mỗi lần đổi giá chỉ gọi những alert vừa khớp
+    private static void priceAlertDemo() {
+        Stock stock = new Stock();
+        long[] hits = new long[1];
+        Observer counter = state -> hits[0]++;
+        java.util.Random random = new java.util.Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            long low = MarketDataFeed.toFixed(50 + random.nextInt(100_000) / 1000.0);
+            stock.subscribe(counter, low, low + MarketDataFeed.toFixed(random.nextInt(500) / 100.0));
+        }
+        stock.subscribe(new Investor("Carol"), MarketDataFeed.toFixed(149), Long.MAX_VALUE);
+
+        long price = MarketDataFeed.toFixed(100);
+        long start = System.nanoTime();
+        int updates = 100_000;
+        for (int i = 0; i < updates; i++) {
+            price += random.nextInt(201) - 100;
+            stock.setPrice(price);
+        }
+        stock.setPrice(MarketDataFeed.toFixed(149.5));
+        System.out.printf("%d price updates over 100000 alerts: %d notifications, %d ns/update%n",
+                updates, hits[0], (System.nanoTime() - start) / updates);
+    }
+
+    // 2000 investor (1/4 xin mọi tick, còn lại conflate), 4 dispatcher thread, 10 triệu tick.
+    // Producer không chờ ai: investor xin mọi tick mà không theo kịp vẫn bị vượt vòng, nên in cả số tick bị bỏ
+    // của từng nhóm thay vì coi nhóm đó là nhận đủ.
+    private static void marketDataDemo() throws InterruptedException {
+        Stock stock = new Stock();
+        MarketDataFeed feed = stock.enableMarketData(1 << 16);
+        Investor[] investors = new Investor[2000];
+        MarketDataSubscription[] subscriptions = new MarketDataSubscription[investors.length];
+        long ticks = 10_000_000;
+        long elapsedMs;
+        long allocated;
+        try (MarketDataDispatcher dispatcher = new MarketDataDispatcher(feed, 4)) {
+            for (int i = 0; i < investors.length; i++) {
+                investors[i] = new Investor("Investor-" + i);
+                subscriptions[i] = dispatcher.subscribe(investors[i], i % 4 != 0);
+            }
+            // Một consumer rất chậm (2ms mỗi giá): bị tách sang shard riêng thay vì kéo chậm cả shard
+            dispatcher.subscribe((price, sequence) -> LockSupport.parkNanos(2_000_000), false);
+            com.sun.management.ThreadMXBean threads =
+                    (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+            long before = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            long base = MarketDataFeed.toFixed(120);
+            for (long i = 0; i < ticks; i++) {
+                stock.setPrice(base + (i & 1023));
+            }
+            elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            allocated = threads.getCurrentThreadAllocatedBytes() - before;
+            // Cho dispatcher kịp giao giá cuối cùng
+            Thread.sleep(100);
+            System.out.println("Slow subscribers isolated: " + dispatcher.slowSubscribers());
+        }
+        System.out.printf("Published %d ticks in %d ms (%d bytes allocated by producer)%n",
+                ticks, elapsedMs, allocated);
+        // [0] = xin mọi tick, [1] = conflate
+        long[] received = new long[2];
+        long[] skipped = new long[2];
+        int[] members = new int[2];
+        int lapped = 0;
+        for (int i = 0; i < investors.length; i++) {
+            int group = i % 4 == 0 ? 0 : 1;
+            received[group] += investors[i].received();
+            skipped[group] += subscriptions[i].skipped();
+            members[group]++;
+            if (group == 0 && subscriptions[i].skipped() > 0) {
+                lapped++;
+            }
+        }
+        System.out.printf("Every-tick investors: received avg %d, skipped avg %d (lapped by producer: %d of %d)%n",
+                received[0] / members[0], skipped[0] / members[0], lapped, members[0]);
+        System.out.printf("Conflating investors: received avg %d, skipped avg %d%n",
+                received[1] / members[1], skipped[1] / members[1]);
+        System.out.println("Investor-1 last price = " + MarketDataFeed.format(investors[1].lastPrice()));
     }
 }
\ No newline at end of file
@@ -1,22 +1,34 @@
 import adapter.DataAdapter;
+import adapter.XMLtoBinaryAdapter;
 import adapter.XMLService;
 import adapter.XMLtoJSONAdapter;
+import deadline.Deadline;
+import deadline.DeadlineExceededException;
 import faulttolerance.CircuitBraker;
 import faulttolerance.RetryPolicy;
+import logging.Logger;
 import loadbalancer.Loadbalancer;
 import loadbalancer.Server;
+import metrics.MetricsRegistry;
 import observer.EmailNotifier;
 import observer.TaskService;
 import security.EncryptionUtil;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 
 public class Main {
+    private static final Logger LOG = Logger.getLogger(Main.class);
+
     public static void main(String[] args) {
 
         // ===== Observer Pattern =====
         TaskService taskService = new TaskService();
         taskService.attach(new EmailNotifier());
+        // Chỉ cần biết khi task xong hoặc lỗi, không nhận các bước trung gian
+        taskService.attach(message -> LOG.info("Audit: {}", message), "DONE", "FAILED");
 
         // ===== Adapter Pattern =====
         XMLService xmlService = new XMLService();
@@ -30,22 +42,40 @@ public class Main {
         // ===== Fault Tolerance =====
         CircuitBraker cb = new CircuitBraker();
 
-        RetryPolicy.execute(() -> {
-            cb.call(() -> {
-                Server server = lb.nextServer();
-                server.handleRequest();
+        // Request có 500ms: mọi tầng bên dưới tự kiểm tra deadline trước khi làm tiếp
+        try {
+            Deadline.after(500, TimeUnit.MILLISECONDS).run(() -> RetryPolicy.execute(() -> {
+                cb.call(() -> {
+                    Server server = lb.nextServer();
+                    server.handleRequest();
+
+                    // Task thay đổi trạng thái → Observer chạy
+                    taskService.updateStatus("IN_PROGRESS");
+
+                    // Adapter chuyển dữ liệu
+                    String json = adapter.convert(xmlService.readXML());
+                    LOG.info("Converted data: {}", json);
+
+                    // Security
+                    String encrypted = EncryptionUtil.encrypt(json);
+                    LOG.info("Encrypted data: {}", encrypted);
 
-                // Task thay đổi trạng thái → Observer chạy
-                taskService.updateStatus("IN_PROGRESS");
+                    taskService.updateStatus("DONE");
+                });
+            }, 3));
+        } catch (DeadlineExceededException e) {
+            // request bị bỏ vì hết 500ms: chỉ ghi log, demo vẫn chạy tiếp
+            LOG.warn("Request dropped: {}", e.getMessage());
+        }
 
-                // Adapter chuyển dữ liệu
-                String json = adapter.convert(xmlService.readXML());
-                System.out.println("Converted data: " + json);
+        // Hop nội bộ dùng bản nhị phân: so kích thước với XML (round-trip được kiểm tra trong benchmarks/src/test)
+        XMLtoBinaryAdapter binaryAdapter = new XMLtoBinaryAdapter(xmlService);
+        String xml = "<task><id>1024</id><status>IN_PROGRESS</status><updatedAt>1760000000000</updatedAt>"
+                + "<note>Giao hàng trước 17h ✓</note></task>";
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        int length = binaryAdapter.encode(xml, buffer);
+        LOG.info("Task event: XML {} bytes, binary {} bytes", xml.getBytes(StandardCharsets.UTF_8).length, length);
 
-                // Security
-                String encrypted = EncryptionUtil.encrypt(json);
-                System.out.println("Encrypted data: " + encrypted);
-            });
-        }, 3);
+        System.out.println(MetricsRegistry.global().snapshot());
     }
 }
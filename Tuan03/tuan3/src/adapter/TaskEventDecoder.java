@@ -0,0 +1,102 @@
+package adapter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Flyweight đọc layout của TaskEventEncoder. wrap() giải mã các field số vào biến primitive,
+// note chỉ được chuyển thành chuỗi khi gọi note() / appendNote()
+public final class TaskEventDecoder {
+    private ByteBuffer buffer;
+    private int offset;
+    private int pos;
+    private long taskId;
+    private TaskStatus status;
+    private long updatedAt;
+    private int noteOffset;
+    private int noteLength;
+
+    // Dữ liệu hỏng (varint bị cắt, tràn, độ dài note âm hoặc vượt buffer) bị từ chối ngay tại đây
+    // bằng IllegalArgumentException, các getter sau đó không phải kiểm tra lại
+    public TaskEventDecoder wrap(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.pos = offset;
+        byte version = nextByte();
+        if (version != TaskEventEncoder.SCHEMA_VERSION) {
+            throw new IllegalArgumentException("Unsupported schema version: " + version);
+        }
+        taskId = varint();
+        status = TaskStatus.fromCode(nextByte());
+        updatedAt = varint();
+        long length = varint();
+        if (length < 0 || length > buffer.limit() - pos) {
+            throw new IllegalArgumentException("Độ dài note không hợp lệ: " + length);
+        }
+        noteOffset = pos;
+        noteLength = (int) length;
+        return this;
+    }
+
+    private byte nextByte() {
+        if (pos < 0 || pos >= buffer.limit()) {
+            throw new IllegalArgumentException("Task event bị cắt ngang ở byte " + pos);
+        }
+        return buffer.get(pos++);
+    }
+
+    // Số byte đã đọc tính theo pos chứ không theo Varint.length(value): dữ liệu hỏng có thể mã hóa dài hơn cần
+    private long varint() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = nextByte();
+            if (shift == 63 && (b & 0x7E) != 0) {
+                throw new IllegalArgumentException("Varint tràn 64 bit");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint dài quá 10 byte");
+    }
+
+    public long taskId() {
+        return taskId;
+    }
+
+    public TaskStatus status() {
+        return status;
+    }
+
+    public long updatedAt() {
+        return updatedAt;
+    }
+
+    public int noteLength() {
+        return noteLength;
+    }
+
+    // Note toàn ASCII (trường hợp thường gặp) thì append thẳng, không tạo String
+    public StringBuilder appendNote(StringBuilder out) {
+        for (int i = 0; i < noteLength; i++) {
+            byte b = buffer.get(noteOffset + i);
+            if (b < 0) {
+                return out.append(note());
+            }
+        }
+        for (int i = 0; i < noteLength; i++) {
+            out.append((char) buffer.get(noteOffset + i));
+        }
+        return out;
+    }
+
+    public String note() {
+        byte[] bytes = new byte[noteLength];
+        buffer.get(noteOffset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public int encodedLength() {
+        return noteOffset + noteLength - offset;
+    }
+}
@@ -0,0 +1,99 @@
+package adapter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight ghi task event thẳng vào ByteBuffer, không tạo object trung gian.
+ *
+ * Layout (schema version 1):
+ *   version   1 byte
+ *   taskId    varint
+ *   status    1 byte (TaskStatus.ordinal)
+ *   updatedAt varint (epoch millis)
+ *   note      varint độ dài byte + UTF-8
+ *
+ * Các field phải được ghi đúng thứ tự trên, sau đó đọc encodedLength().
+ */
+public final class TaskEventEncoder {
+    public static final byte SCHEMA_VERSION = 1;
+
+    private ByteBuffer buffer;
+    private int offset;
+    private int limit;
+
+    public TaskEventEncoder wrap(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        buffer.put(offset, SCHEMA_VERSION);
+        this.limit = offset + 1;
+        return this;
+    }
+
+    public TaskEventEncoder taskId(long taskId) {
+        limit += Varint.put(buffer, limit, taskId);
+        return this;
+    }
+
+    public TaskEventEncoder status(TaskStatus status) {
+        buffer.put(limit++, (byte) status.ordinal());
+        return this;
+    }
+
+    public TaskEventEncoder updatedAt(long epochMillis) {
+        limit += Varint.put(buffer, limit, epochMillis);
+        return this;
+    }
+
+    public TaskEventEncoder note(CharSequence note) {
+        return note(note, 0, note.length());
+    }
+
+    // Ghi đoạn [start, end) của note, không cần cắt ra chuỗi riêng
+    public TaskEventEncoder note(CharSequence note, int start, int end) {
+        limit += Varint.put(buffer, limit, utf8Length(note, start, end));
+        for (int i = start; i < end; i++) {
+            char c = note.charAt(i);
+            if (c < 0x80) {
+                buffer.put(limit++, (byte) c);
+            } else if (c < 0x800) {
+                buffer.put(limit++, (byte) (0xC0 | c >> 6));
+                buffer.put(limit++, (byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < end
+                    && Character.isLowSurrogate(note.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, note.charAt(++i));
+                buffer.put(limit++, (byte) (0xF0 | cp >> 18));
+                buffer.put(limit++, (byte) (0x80 | cp >> 12 & 0x3F));
+                buffer.put(limit++, (byte) (0x80 | cp >> 6 & 0x3F));
+                buffer.put(limit++, (byte) (0x80 | cp & 0x3F));
+            } else {
+                buffer.put(limit++, (byte) (0xE0 | c >> 12));
+                buffer.put(limit++, (byte) (0x80 | c >> 6 & 0x3F));
+                buffer.put(limit++, (byte) (0x80 | c & 0x3F));
+            }
+        }
+        return this;
+    }
+
+    public int encodedLength() {
+        return limit - offset;
+    }
+
+    static int utf8Length(CharSequence s, int start, int end) {
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < end
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,15 @@
+package adapter;
+
+// Mã byte ghi trên dây = ordinal, chỉ được thêm status mới vào cuối
+public enum TaskStatus {
+    TODO, IN_PROGRESS, DONE, FAILED;
+
+    private static final TaskStatus[] VALUES = values();
+
+    public static TaskStatus fromCode(int code) {
+        if (code < 0 || code >= VALUES.length) {
+            throw new IllegalArgumentException("Unknown task status code: " + code);
+        }
+        return VALUES[code];
+    }
+}
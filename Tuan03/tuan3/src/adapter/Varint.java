@@ -0,0 +1,25 @@
+package adapter;
+
+import java.nio.ByteBuffer;
+
+// LEB128 không dấu: 7 bit mỗi byte, bit cao = còn byte tiếp theo. Số nhỏ chỉ tốn 1-2 byte.
+// Đọc nằm trong TaskEventDecoder để kiểm tra biên theo limit của buffer.
+final class Varint {
+    private Varint() {
+    }
+
+    static int put(ByteBuffer buffer, int index, long value) {
+        int start = index;
+        while ((value & ~0x7FL) != 0) {
+            buffer.put(index++, (byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put(index++, (byte) value);
+        return index - start;
+    }
+
+    static int length(long value) {
+        int bits = 64 - Long.numberOfLeadingZeros(value | 1);
+        return (bits + 6) / 7;
+    }
+}
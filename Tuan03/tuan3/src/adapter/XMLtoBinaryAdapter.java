@@ -0,0 +1,116 @@
+package adapter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Đích thứ hai bên cạnh JSON: XML task -> task event nhị phân (TaskEventEncoder).
+// API chính là encode(xml, out): đọc thẳng từ CharSequence, ghi thẳng vào ByteBuffer của caller, không tạo
+// String/substring trung gian. convert() chỉ để giữ interface DataAdapter: trả về byte dưới dạng chuỗi
+// ISO-8859-1 (mỗi byte một char) nên luôn tạo một String, không dùng cho đường nóng.
+// Không thread-safe: mỗi adapter giữ encoder và buffer của convert() để dùng lại.
+public class XMLtoBinaryAdapter implements DataAdapter {
+    private static final String ID_OPEN = "<id>";
+    private static final String ID_CLOSE = "</id>";
+    private static final String STATUS_OPEN = "<status>";
+    private static final String STATUS_CLOSE = "</status>";
+    private static final String UPDATED_AT_OPEN = "<updatedAt>";
+    private static final String UPDATED_AT_CLOSE = "</updatedAt>";
+    private static final String NOTE_OPEN = "<note>";
+    private static final String NOTE_CLOSE = "</note>";
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private final XMLService xmlService;
+    private final TaskEventEncoder encoder = new TaskEventEncoder();
+    private ByteBuffer buffer = ByteBuffer.allocate(4096);
+
+    public XMLtoBinaryAdapter(XMLService xmlService) {
+        this.xmlService = xmlService;
+    }
+
+    @Override
+    public String convert(String data) {
+        // Cận trên: note tối đa 3 byte/char, phần còn lại (version, varint, status) không quá 32 byte
+        int maxLength = data.length() * 3 + 32;
+        if (buffer.capacity() < maxLength) {
+            buffer = ByteBuffer.allocate(Integer.highestOneBit(maxLength) << 1);
+        }
+        int length = encode(data, buffer, 0);
+        return new String(buffer.array(), 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    // Ghi từ out.position() và dời position qua event vừa ghi; trả về số byte đã ghi
+    public int encode(CharSequence xml, ByteBuffer out) {
+        int length = encode(xml, out, out.position());
+        out.position(out.position() + length);
+        return length;
+    }
+
+    // Ghi ở vị trí tuyệt đối offset, không đổi position; trả về số byte đã ghi
+    public int encode(CharSequence xml, ByteBuffer out, int offset) {
+        encoder.wrap(out, offset);
+
+        int start = valueStart(xml, ID_OPEN);
+        int end = valueEnd(xml, ID_CLOSE, start);
+        encoder.taskId(end < 0 ? 0 : Long.parseLong(xml, start, end, 10));
+
+        start = valueStart(xml, STATUS_OPEN);
+        end = valueEnd(xml, STATUS_CLOSE, start);
+        encoder.status(end < 0 ? TaskStatus.TODO : status(xml, start, end));
+
+        start = valueStart(xml, UPDATED_AT_OPEN);
+        end = valueEnd(xml, UPDATED_AT_CLOSE, start);
+        encoder.updatedAt(end < 0 ? 0 : Long.parseLong(xml, start, end, 10));
+
+        start = valueStart(xml, NOTE_OPEN);
+        end = valueEnd(xml, NOTE_CLOSE, start);
+        if (end < 0) {
+            encoder.note(xml, 0, 0);
+        } else {
+            encoder.note(xml, start, end);
+        }
+        return encoder.encodedLength();
+    }
+
+    // Vị trí ngay sau thẻ mở, -1 nếu không có
+    private static int valueStart(CharSequence xml, String open) {
+        int index = indexOf(xml, open, 0);
+        return index < 0 ? -1 : index + open.length();
+    }
+
+    private static int valueEnd(CharSequence xml, String close, int start) {
+        return start < 0 ? -1 : indexOf(xml, close, start);
+    }
+
+    private static int indexOf(CharSequence s, String target, int from) {
+        if (s instanceof String str) {
+            return str.indexOf(target, from);
+        }
+        char first = target.charAt(0);
+        for (int i = from, last = s.length() - target.length(); i <= last; i++) {
+            if (s.charAt(i) == first && regionEquals(s, i, target)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean regionEquals(CharSequence s, int start, String target) {
+        for (int j = 0; j < target.length(); j++) {
+            if (s.charAt(start + j) != target.charAt(j)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Giống TaskStatus.valueOf nhưng so trực tiếp trên đoạn [start, end) của xml
+    private static TaskStatus status(CharSequence xml, int start, int end) {
+        for (TaskStatus status : STATUSES) {
+            String name = status.name();
+            if (name.length() == end - start && regionEquals(xml, start, name)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown task status: " + xml.subSequence(start, end));
+    }
+}
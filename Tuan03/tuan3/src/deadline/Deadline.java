@@ -0,0 +1,72 @@
+package deadline;
+
+import metrics.MetricsRegistry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Deadline của request hiện tại, đi theo thread (ThreadLocal) qua RetryPolicy, CircuitBraker, Server...
+// Mỗi tầng gọi Deadline.check("tầng") trước khi làm việc; hết hạn thì ném DeadlineExceededException
+// và đếm vào metric deadline.exceeded.<tầng>.
+public final class Deadline {
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static Deadline after(long timeout, TimeUnit unit) {
+        return new Deadline(System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    // null nếu request không có deadline
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    public static void check(String layer) {
+        Deadline deadline = CURRENT.get();
+        if (deadline != null && deadline.isExpired()) {
+            MetricsRegistry.global().counter("deadline.exceeded." + layer).increment();
+            throw new DeadlineExceededException(layer);
+        }
+    }
+
+    public long remaining(TimeUnit unit) {
+        return unit.convert(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    public void run(Runnable task) {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            task.run();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public <T> T call(Supplier<T> task) {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return task.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    private static void restore(Deadline previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
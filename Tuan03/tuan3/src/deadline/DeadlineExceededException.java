@@ -0,0 +1,16 @@
+package deadline;
+
+public class DeadlineExceededException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final String layer;
+
+    public DeadlineExceededException(String layer) {
+        super("Deadline exceeded at " + layer);
+        this.layer = layer;
+    }
+
+    public String getLayer() {
+        return layer;
+    }
+}
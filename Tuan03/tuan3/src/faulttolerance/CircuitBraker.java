@@ -1,17 +1,95 @@
 package faulttolerance;
 
+import deadline.Deadline;
+import deadline.DeadlineExceededException;
+import logging.Logger;
+import metrics.Counter;
+import metrics.MetricsRegistry;
+import scheduler.TimingWheel;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
 public class CircuitBraker {
-    private boolean open = false;
+    private static final Logger LOG = Logger.getLogger(CircuitBraker.class);
+    private static final Counter OPENED = MetricsRegistry.global().counter("circuitbreaker.opened");
+    private static final Counter CLOSED = MetricsRegistry.global().counter("circuitbreaker.closed");
+    private static final Counter HALF_OPENED = MetricsRegistry.global().counter("circuitbreaker.halfopen");
+    private static final Counter REJECTED = MetricsRegistry.global().counter("circuitbreaker.rejected");
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    // Mọi chuyển trạng thái đều bằng CAS để hai lỗi đồng thời không hẹn hai timer reset
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    // HALF_OPEN chỉ cho đúng một request thử đi qua
+    private final AtomicBoolean probing = new AtomicBoolean();
+    private final long openTimeoutMillis;
+    private final TimingWheel timer;
+
+    public CircuitBraker() {
+        this(0, null);
+    }
 
+    // Sau openTimeoutMillis thì chuyển sang HALF_OPEN để cho một request đi thử
+    public CircuitBraker(long openTimeoutMillis) {
+        this(openTimeoutMillis, TimingWheel.shared());
+    }
+
+    public CircuitBraker(long openTimeoutMillis, TimingWheel timer) {
+        this.openTimeoutMillis = openTimeoutMillis;
+        this.timer = timer;
+    }
+
+    // Lỗi của task được tính vào breaker rồi ném tiếp cho caller (vd RetryPolicy) xử lý
     public void call(Runnable task) {
-        if (open) {
-            System.out.println("Circuit is open!");
+        Deadline.check("circuitbreaker");
+        State current = state.get();
+        boolean probe = current == State.HALF_OPEN;
+        if (current == State.OPEN || (probe && !probing.compareAndSet(false, true))) {
+            REJECTED.increment();
+            LOG.warn("Circuit is open!");
             return;
         }
         try {
             task.run();
-        } catch (Exception e) {
-            open = true;
+            if (probe && state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+                CLOSED.increment();
+            }
+        } catch (DeadlineExceededException e) {
+            // client đã bỏ cuộc, không phải lỗi của downstream nên không tính vào breaker
+            throw e;
+        } catch (RuntimeException e) {
+            trip(current);
+            throw e;
+        } finally {
+            if (probe) {
+                probing.set(false);
+            }
+        }
+    }
+
+    public boolean isOpen() {
+        return state.get() == State.OPEN;
+    }
+
+    State state() {
+        return state.get();
+    }
+
+    private void trip(State from) {
+        if (!state.compareAndSet(from, State.OPEN)) {
+            return;
+        }
+        OPENED.increment();
+        if (timer != null && openTimeoutMillis > 0) {
+            timer.schedule(this::halfOpen, openTimeoutMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void halfOpen() {
+        if (state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+            HALF_OPENED.increment();
         }
     }
 }
@@ -0,0 +1,160 @@
+package faulttolerance;
+
+import deadline.Deadline;
+import deadline.DeadlineExceededException;
+import loadbalancer.Loadbalancer;
+import loadbalancer.Server;
+import logging.Logger;
+import metrics.Counter;
+import metrics.MetricsRegistry;
+import scheduler.Timeout;
+import scheduler.TimingWheel;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+// Hedged request: nếu lần gọi đầu chưa xong sau ngưỡng p95 (tự cập nhật theo latency gần đây)
+// thì gửi thêm một lần sang server khác, kết quả nào về trước thắng, lần còn lại bị cancel.
+// Số hedge bị giới hạn bởi budget (vd 0.1 = tối đa ~10% request có hedge).
+public class HedgedExecutor {
+    private static final Logger LOG = Logger.getLogger(HedgedExecutor.class);
+    private static final Counter HEDGES = MetricsRegistry.global().counter("hedge.sent");
+    private static final Counter HEDGE_WINS = MetricsRegistry.global().counter("hedge.won");
+    private static final Counter BUDGET_EXHAUSTED = MetricsRegistry.global().counter("hedge.budget_exhausted");
+
+    private final Loadbalancer loadbalancer;
+    private final ExecutorService executor;
+    private final TimingWheel timer;
+    private final HedgePolicy policy;
+
+    public HedgedExecutor(Loadbalancer loadbalancer, ExecutorService executor, double percentile,
+                          double budgetRatio, long initialThresholdMillis) {
+        this(loadbalancer, executor, TimingWheel.shared(), percentile, budgetRatio, initialThresholdMillis);
+    }
+
+    public HedgedExecutor(Loadbalancer loadbalancer, ExecutorService executor, TimingWheel timer,
+                          double percentile, double budgetRatio, long initialThresholdMillis) {
+        this.loadbalancer = loadbalancer;
+        this.executor = executor;
+        this.timer = timer;
+        this.policy = new HedgePolicy(percentile, budgetRatio, initialThresholdMillis);
+    }
+
+    public <T> CompletableFuture<T> execute(Function<Server, T> call) {
+        Deadline deadline = Deadline.current();
+        Deadline.check("hedge");
+        Call<T> c = new Call<>(call, loadbalancer.nextServer(), deadline);
+        policy.onRequest();
+        submit(c, c.primary, false);
+        Timeout hedgeTimer = timer.schedule(() -> {
+            if (!c.result.isDone()) {
+                hedge(c);
+            }
+        }, policy.thresholdNanos(), TimeUnit.NANOSECONDS);
+        // Hết deadline thì fail ngay và cancel mọi attempt đang chạy
+        Timeout deadlineTimer = deadline == null ? null : timer.schedule(() -> {
+            if (c.result.completeExceptionally(new DeadlineExceededException("hedge"))) {
+                MetricsRegistry.global().counter("deadline.exceeded.hedge").increment();
+            }
+        }, deadline.remaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        c.result.whenComplete((v, e) -> {
+            hedgeTimer.cancel();
+            if (deadlineTimer != null) {
+                deadlineTimer.cancel();
+            }
+            for (int i = 0; i < c.attempts.length(); i++) {
+                Future<?> attempt = c.attempts.get(i);
+                if (attempt != null) {
+                    attempt.cancel(true);
+                }
+            }
+        });
+        return c.result;
+    }
+
+    private static final class Call<T> {
+        final Function<Server, T> call;
+        final Server primary;
+        final Deadline deadline;
+        final long start = System.nanoTime();
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final AtomicInteger pending = new AtomicInteger(1);
+        final AtomicBoolean hedged = new AtomicBoolean();
+        // Ghi từ thread gọi execute và từ thread của attempt lỗi (hedge ngay), đọc từ whenComplete
+        final AtomicReferenceArray<Future<?>> attempts = new AtomicReferenceArray<>(2);
+        // Lỗi gần nhất, ghi trước khi attempt trả pending
+        volatile RuntimeException failure;
+
+        Call(Function<Server, T> call, Server primary, Deadline deadline) {
+            this.call = call;
+            this.primary = primary;
+            this.deadline = deadline;
+        }
+    }
+
+    // Mỗi request hedge tối đa một lần: khi quá ngưỡng, hoặc ngay khi lần đầu lỗi.
+    // pending tăng trước CAS để attempt đầu lỗi cùng lúc không thấy pending = 0 trong khi hedge sắp được gửi;
+    // nhánh nào bỏ hedge thì trả lại qua release().
+    private <T> boolean hedge(Call<T> c) {
+        c.pending.incrementAndGet();
+        if (!c.hedged.compareAndSet(false, true)) {
+            release(c);
+            return false;
+        }
+        if (c.deadline != null && c.deadline.isExpired()) {
+            release(c);
+            return false;
+        }
+        if (!policy.tryAcquire()) {
+            BUDGET_EXHAUSTED.increment();
+            release(c);
+            return false;
+        }
+        Server backup = loadbalancer.nextServerExcluding(c.primary);
+        HEDGES.increment();
+        LOG.debug("Hedging request to {}", backup.getName());
+        submit(c, backup, true);
+        return true;
+    }
+
+    // Attempt cuối cùng kết thúc mà chưa có kết quả thì request lỗi theo lỗi gần nhất
+    private static <T> void release(Call<T> c) {
+        if (c.pending.decrementAndGet() == 0) {
+            c.result.completeExceptionally(c.failure);
+        }
+    }
+
+    private <T> void submit(Call<T> c, Server server, boolean hedge) {
+        Future<?> attempt = executor.submit(() -> {
+            try {
+                T value = c.deadline == null ? c.call.apply(server) : c.deadline.call(() -> c.call.apply(server));
+                if (c.result.complete(value)) {
+                    policy.record(System.nanoTime() - c.start);
+                    if (hedge) {
+                        HEDGE_WINS.increment();
+                    }
+                }
+            } catch (RuntimeException e) {
+                c.failure = e;
+                if (!c.result.isDone()) {
+                    hedge(c); // lần đầu lỗi thì hedge ngay, không đợi tới ngưỡng
+                }
+                release(c);
+            }
+        });
+        c.attempts.set(hedge ? 1 : 0, attempt);
+        if (c.result.isDone()) {
+            attempt.cancel(true);
+        }
+    }
+
+    public long thresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(policy.thresholdNanos());
+    }
+}
@@ -1,14 +1,95 @@
 package faulttolerance;
 
+import deadline.Deadline;
+import deadline.DeadlineExceededException;
+import logging.Logger;
+import metrics.Counter;
+import metrics.MetricsRegistry;
+import scheduler.TimingWheel;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
 public class RetryPolicy {
+    private static final Logger LOG = Logger.getLogger(RetryPolicy.class);
+    private static final Counter RETRIES = MetricsRegistry.global().counter("retry.retries");
+    private static final Counter EXHAUSTED = MetricsRegistry.global().counter("retry.exhausted");
+
     public static void execute(Runnable task, int retries) {
         for (int i = 0; i < retries; i++) {
+            Deadline.check("retry");
             try {
                 task.run();
                 return;
+            } catch (DeadlineExceededException e) {
+                throw e;
             } catch (Exception e) {
-                System.out.println("Retry " + (i + 1));
+                RETRIES.increment();
+                LOG.warn("Retry {}", i + 1);
+            }
+        }
+        EXHAUSTED.increment();
+    }
+
+    // Back-off tăng gấp đôi mỗi lần, lần thử tiếp theo được hẹn trên timing wheel thay vì sleep
+    public static CompletableFuture<Void> executeWithBackoff(Runnable task, int retries, long initialBackoffMillis) {
+        return executeWithBackoff(task, retries, initialBackoffMillis, TimingWheel.shared());
+    }
+
+    public static CompletableFuture<Void> executeWithBackoff(Runnable task, int retries, long initialBackoffMillis,
+                                                             TimingWheel timer) {
+        return executeWithBackoff(task, retries, initialBackoffMillis, timer, ForkJoinPool.commonPool());
+    }
+
+    // Timing wheel chỉ hẹn giờ, lần retry chạy trên executor để task chậm không chặn các timer khác
+    public static CompletableFuture<Void> executeWithBackoff(Runnable task, int retries, long initialBackoffMillis,
+                                                             TimingWheel timer, Executor executor) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        attempt(task, 0, retries, initialBackoffMillis, timer, executor, result, Deadline.current());
+        return result;
+    }
+
+    // Lần retry chạy trên thread của executor nên deadline được mang theo tường minh
+    private static void attempt(Runnable task, int attempt, int retries, long backoffMillis, TimingWheel timer,
+                                Executor executor, CompletableFuture<Void> result, Deadline deadline) {
+        try {
+            if (deadline != null) {
+                deadline.run(() -> {
+                    Deadline.check("retry");
+                    task.run();
+                });
+            } else {
+                task.run();
+            }
+            result.complete(null);
+        } catch (DeadlineExceededException e) {
+            result.completeExceptionally(e);
+        } catch (Exception e) {
+            // hết lượt thử thì báo lỗi thật của lần cuối, deadline chỉ quyết định có hẹn lần tiếp hay không
+            if (attempt + 1 >= retries) {
+                EXHAUSTED.increment();
+                result.completeExceptionally(e);
+                return;
+            }
+            if (deadline != null && deadline.remaining(TimeUnit.MILLISECONDS) <= backoffMillis) {
+                // hết thời gian trước cả khi tới lượt retry kế tiếp: bỏ luôn, không hẹn giờ
+                MetricsRegistry.global().counter("deadline.exceeded.retry").increment();
+                result.completeExceptionally(new DeadlineExceededException("retry"));
+                return;
             }
+            RETRIES.increment();
+            LOG.warn("Retry {} in {}ms", attempt + 1, backoffMillis);
+            timer.schedule(() -> {
+                try {
+                    executor.execute(() -> attempt(task, attempt + 1, retries, backoffMillis * 2, timer, executor,
+                            result, deadline));
+                } catch (RejectedExecutionException rejected) {
+                    result.completeExceptionally(rejected);
+                }
+            }, backoffMillis, TimeUnit.MILLISECONDS);
         }
     }
 }
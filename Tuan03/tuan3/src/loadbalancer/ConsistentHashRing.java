@@ -0,0 +1,85 @@
+package loadbalancer;
+
+import java.util.Arrays;
+
+// Snapshot bất biến của ring: thêm/bớt server thì build ring mới, lookup chỉ đọc mảng nên không cần lock
+final class ConsistentHashRing {
+    static final ConsistentHashRing EMPTY = new ConsistentHashRing(new Server[0], 0);
+
+    final Server[] servers;
+    private final long[] points;
+    private final Server[] owners;
+
+    ConsistentHashRing(Server[] servers, int virtualNodes) {
+        this.servers = servers;
+        int n = servers.length * virtualNodes;
+        long[][] entries = new long[n][];
+        int k = 0;
+        for (int s = 0; s < servers.length; s++) {
+            for (int v = 0; v < virtualNodes; v++) {
+                entries[k++] = new long[]{hash(servers[s].getName() + "#" + v), s};
+            }
+        }
+        Arrays.sort(entries, (a, b) -> Long.compare(a[0], b[0]));
+        this.points = new long[n];
+        this.owners = new Server[n];
+        for (int i = 0; i < n; i++) {
+            points[i] = entries[i][0];
+            owners[i] = servers[(int) entries[i][1]];
+        }
+    }
+
+    ConsistentHashRing with(Server server, int virtualNodes) {
+        Server[] next = Arrays.copyOf(servers, servers.length + 1);
+        next[servers.length] = server;
+        return new ConsistentHashRing(next, virtualNodes);
+    }
+
+    ConsistentHashRing without(Server server, int virtualNodes) {
+        return new ConsistentHashRing(Arrays.stream(servers).filter(s -> s != server).toArray(Server[]::new),
+                virtualNodes);
+    }
+
+    // Bounded-load: server đầu tiên theo chiều kim đồng hồ có inFlight < capacity,
+    // capacity tính từ tổng inFlight (kể cả request sắp thêm vào) chia đều cho các server
+    Server lookup(String key, double loadFactor, long totalInFlight) {
+        if (owners.length == 0) {
+            throw new IllegalStateException("No servers");
+        }
+        int start = Arrays.binarySearch(points, hash(key));
+        if (start < 0) {
+            start = -start - 1;
+        }
+        long capacity = (long) Math.ceil(loadFactor * (totalInFlight + 1) / servers.length);
+        for (int i = 0; i < owners.length; i++) {
+            Server candidate = owners[(start + i) % owners.length];
+            if (candidate.inFlight() < capacity) {
+                return candidate;
+            }
+        }
+        return owners[start % owners.length];
+    }
+
+    boolean isHome(String key, Server server) {
+        int start = Arrays.binarySearch(points, hash(key));
+        if (start < 0) {
+            start = -start - 1;
+        }
+        return owners[start % owners.length] == server;
+    }
+
+    // FNV-1a 64 + bước trộn của MurmurHash3 để virtual node rải đều
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
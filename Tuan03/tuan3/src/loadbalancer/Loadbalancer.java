@@ -1,16 +1,85 @@
 package loadbalancer;
+import metrics.Counter;
+import metrics.MetricsRegistry;
+
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 public class Loadbalancer {
-    private List<Server> servers;
+    private static final Counter SELECTIONS = MetricsRegistry.global().counter("loadbalancer.selections");
+    private static final Counter SPILLOVERS = MetricsRegistry.global().counter("loadbalancer.spillovers");
+    private static final int DEFAULT_VIRTUAL_NODES = 160;
+    // mỗi server nhận tối đa 1.25 x tải trung bình trước khi key bị đẩy sang server kế tiếp trên ring
+    private static final double DEFAULT_LOAD_FACTOR = 1.25;
+
+    private final int virtualNodes;
+    private final double loadFactor;
+    private volatile ConsistentHashRing ring;
     private AtomicInteger index = new AtomicInteger(0);
+    // Tổng request đang chạy qua acquire(): giữ sẵn để lookup không phải cộng inFlight của mọi server
+    private final AtomicLong totalInFlight = new AtomicLong();
 
     public Loadbalancer(List<Server> servers) {
-        this.servers = servers;
+        this(servers, DEFAULT_VIRTUAL_NODES, DEFAULT_LOAD_FACTOR);
+    }
+
+    public Loadbalancer(List<Server> servers, int virtualNodes, double loadFactor) {
+        this.virtualNodes = virtualNodes;
+        this.loadFactor = loadFactor;
+        this.ring = new ConsistentHashRing(servers.toArray(new Server[0]), virtualNodes);
     }
 
     public Server nextServer() {
-        return servers.get(index.getAndIncrement() % servers.size());
+        SELECTIONS.increment();
+        Server[] servers = ring.servers;
+        return servers[Math.floorMod(index.getAndIncrement(), servers.length)];
+    }
+
+    // Server kế tiếp khác exclude (dùng cho hedged request); chỉ có 1 server thì trả về chính nó
+    public Server nextServerExcluding(Server exclude) {
+        Server server = nextServer();
+        for (int i = 1; server == exclude && i < ring.servers.length; i++) {
+            server = nextServer();
+        }
+        return server;
+    }
+
+    // Key affinity: cùng taskId luôn về cùng server (giữ cache), trừ khi server đó đang quá tải.
+    // Server trả về được tính là đang bận tới khi gọi release(server), tải này là cơ sở cho spillover.
+    public Server acquire(String taskId) {
+        SELECTIONS.increment();
+        ConsistentHashRing snapshot = ring;
+        Server server = snapshot.lookup(taskId, loadFactor, totalInFlight.get());
+        server.inFlight.incrementAndGet();
+        totalInFlight.incrementAndGet();
+        if (!snapshot.isHome(taskId, server)) {
+            SPILLOVERS.increment();
+        }
+        return server;
+    }
+
+    public void release(Server server) {
+        server.inFlight.decrementAndGet();
+        totalInFlight.decrementAndGet();
+    }
+
+    public <T> T execute(String taskId, Function<Server, T> call) {
+        Server server = acquire(taskId);
+        try {
+            return call.apply(server);
+        } finally {
+            release(server);
+        }
+    }
+
+    // Thêm/bớt server chỉ remap ~1/N key
+    public synchronized void addServer(Server server) {
+        ring = ring.with(server, virtualNodes);
+    }
+
+    public synchronized void removeServer(Server server) {
+        ring = ring.without(server, virtualNodes);
     }
 }
@@ -1,14 +1,37 @@
 package loadbalancer;
 
+import deadline.Deadline;
+import logging.Logger;
+import metrics.Counter;
+import metrics.MetricsRegistry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class Server {
+    private static final Logger LOG = Logger.getLogger(Server.class);
+
     private String name;
+    private final Counter requests;
+    // Do Loadbalancer.acquire/release cập nhật: tính từ lúc chọn server tới khi request xong
+    final AtomicInteger inFlight = new AtomicInteger();
 
     public Server(String name) {
         this.name = name;
+        this.requests = MetricsRegistry.global().counter("server.requests." + name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
     }
 
     public void handleRequest() {
-        System.out.println("Handling request on " + name);
+        Deadline.check("server");
+        requests.increment();
+        LOG.info("Handling request on {}", name);
     }
 }
 
@@ -0,0 +1,223 @@
+package logging;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Ring buffer bounded nhiều producer / một writer (Vyukov). Slot và byte[] cấp phát sẵn,
+// thread request chỉ CAS lấy slot rồi copy bytes vào, I/O do writer thread gom batch ghi ra channel.
+public final class AsyncLogSink {
+    private static volatile AsyncLogSink global;
+
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final byte[][] slots;
+    private final int[] lengths;
+    private final AtomicLong tail = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private final FullPolicy fullPolicy;
+    private final WritableByteChannel channel;
+    // stdout không thuộc sink: đóng nó sẽ đóng luôn fd 1 của cả process
+    private final boolean ownsChannel;
+    private final ByteBuffer batch;
+    private final Thread writer;
+    private volatile boolean running = true;
+    private long head;
+
+    public AsyncLogSink(WritableByteChannel channel, int capacity, int maxLineBytes, FullPolicy fullPolicy) {
+        this(channel, true, capacity, maxLineBytes, fullPolicy);
+    }
+
+    private AsyncLogSink(WritableByteChannel channel, boolean ownsChannel, int capacity, int maxLineBytes,
+                         FullPolicy fullPolicy) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two");
+        }
+        this.channel = channel;
+        this.ownsChannel = ownsChannel;
+        this.fullPolicy = fullPolicy;
+        this.mask = capacity - 1;
+        this.sequences = new AtomicLongArray(capacity);
+        this.slots = new byte[capacity][maxLineBytes];
+        this.lengths = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        this.batch = ByteBuffer.allocateDirect(Math.max(64 * 1024, maxLineBytes));
+        this.writer = new Thread(this::drainLoop, "log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "log-shutdown"));
+    }
+
+    // Cấu hình qua system property: log.file (mặc định "-" = stdout, hoặc đường dẫn file),
+    // log.capacity (1024 dòng), log.maxLineBytes (512), log.fullPolicy (DROP|BLOCK).
+    // Bộ nhớ cấp sẵn = capacity x maxLineBytes (mặc định 512 KB)
+    public static AsyncLogSink global() {
+        AsyncLogSink sink = global;
+        if (sink == null) {
+            synchronized (AsyncLogSink.class) {
+                sink = global;
+                if (sink == null) {
+                    String file = System.getProperty("log.file", "-");
+                    sink = new AsyncLogSink(openChannel(file), !"-".equals(file),
+                            Integer.getInteger("log.capacity", 1024), Integer.getInteger("log.maxLineBytes", 512),
+                            FullPolicy.valueOf(System.getProperty("log.fullPolicy", "DROP")));
+                    global = sink;
+                }
+            }
+        }
+        return sink;
+    }
+
+    private static WritableByteChannel openChannel(String file) {
+        if ("-".equals(file)) {
+            return Channels.newChannel(new FileOutputStream(FileDescriptor.out));
+        }
+        try {
+            Path path = Paths.get(file);
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    // Encode dòng log thành UTF-8 thẳng vào slot; false nếu bị drop
+    boolean publish(CharSequence line) {
+        long pos;
+        int idx;
+        while (true) {
+            pos = tail.get();
+            idx = (int) (pos & mask);
+            long diff = sequences.get(idx) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+            } else if (diff < 0) {
+                if (fullPolicy == FullPolicy.DROP || !running) {
+                    dropped.increment();
+                    return false;
+                }
+                LockSupport.parkNanos(1_000);
+            }
+        }
+        lengths[idx] = encode(line, slots[idx]);
+        sequences.lazySet(idx, pos + 1);
+        return true;
+    }
+
+    private static int encode(CharSequence s, byte[] out) {
+        // chừa 1 byte cho '\n' nếu dòng bị cắt
+        int limit = out.length - 1;
+        int n = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                if (n + 1 > limit) break;
+                out[n++] = (byte) c;
+            } else if (c < 0x800) {
+                if (n + 2 > limit) break;
+                out[n++] = (byte) (0xC0 | (c >> 6));
+                out[n++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length()) {
+                if (n + 4 > limit) break;
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                out[n++] = (byte) (0xF0 | (cp >> 18));
+                out[n++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                out[n++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                out[n++] = (byte) (0x80 | (cp & 0x3F));
+            } else {
+                if (n + 3 > limit) break;
+                out[n++] = (byte) (0xE0 | (c >> 12));
+                out[n++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                out[n++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        if (n == 0 || out[n - 1] != '\n') {
+            out[n++] = '\n';
+        }
+        return n;
+    }
+
+    private void drainLoop() {
+        while (running) {
+            if (drain() == 0) {
+                LockSupport.parkNanos(1_000_000);
+            }
+        }
+        drain();
+    }
+
+    // Chỉ writer thread (hoặc close sau khi writer dừng) gọi
+    private int drain() {
+        int count = 0;
+        while (true) {
+            int idx = (int) (head & mask);
+            if (sequences.get(idx) != head + 1) {
+                break;
+            }
+            int len = lengths[idx];
+            if (batch.remaining() < len) {
+                flush();
+            }
+            batch.put(slots[idx], 0, len);
+            sequences.lazySet(idx, head + mask + 1);
+            head++;
+            count++;
+        }
+        if (count > 0) {
+            flush();
+        }
+        return count;
+    }
+
+    private void flush() {
+        batch.flip();
+        try {
+            while (batch.hasRemaining()) {
+                channel.write(batch);
+            }
+        } catch (IOException e) {
+            dropped.increment();
+        }
+        batch.clear();
+    }
+
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            writer.join(1_000);
+            if (ownsChannel) {
+                channel.close();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package logging;
+
+// Khi ring buffer đầy: DROP bỏ dòng log (đếm lại), BLOCK đợi writer giải phóng slot
+public enum FullPolicy {
+    DROP, BLOCK
+}
@@ -0,0 +1,141 @@
+package logging;
+
+// Facade kiểu SLF4J: message có "{}" chỉ được format khi level bật, vào StringBuilder dùng lại theo thread
+public class Logger {
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+    private static volatile Level threshold = Level.valueOf(System.getProperty("log.level", "INFO"));
+
+    private final String name;
+    private final AsyncLogSink sink;
+
+    public Logger(String name, AsyncLogSink sink) {
+        this.name = name;
+        this.sink = sink;
+    }
+
+    public static Logger getLogger(Class<?> type) {
+        return new Logger(type.getSimpleName(), AsyncLogSink.global());
+    }
+
+    public static void setLevel(Level level) {
+        threshold = level;
+    }
+
+    public boolean isEnabled(Level level) {
+        return level.ordinal() >= threshold.ordinal();
+    }
+
+    public void info(String msg) {
+        log(Level.INFO, msg, null, null, null, 0);
+    }
+
+    public void info(String msg, Object a) {
+        log(Level.INFO, msg, a, null, null, 1);
+    }
+
+    public void info(String msg, long a) {
+        log(Level.INFO, msg, a, 0, 1);
+    }
+
+    public void info(String msg, Object a, Object b) {
+        log(Level.INFO, msg, a, b, null, 2);
+    }
+
+    public void info(String msg, Object a, Object b, Object c) {
+        log(Level.INFO, msg, a, b, c, 3);
+    }
+
+    public void warn(String msg) {
+        log(Level.WARN, msg, null, null, null, 0);
+    }
+
+    public void warn(String msg, Object a) {
+        log(Level.WARN, msg, a, null, null, 1);
+    }
+
+    public void warn(String msg, Object a, Object b) {
+        log(Level.WARN, msg, a, b, null, 2);
+    }
+
+    public void warn(String msg, long a) {
+        log(Level.WARN, msg, a, 0, 1);
+    }
+
+    public void warn(String msg, long a, long b) {
+        log(Level.WARN, msg, a, b, 2);
+    }
+
+    public void error(String msg, Object a) {
+        log(Level.ERROR, msg, a, null, null, 1);
+    }
+
+    public void debug(String msg, Object a) {
+        log(Level.DEBUG, msg, a, null, null, 1);
+    }
+
+    public void debug(String msg, long a) {
+        log(Level.DEBUG, msg, a, 0, 1);
+    }
+
+    private void log(Level level, String msg, Object a, Object b, Object c, int argc) {
+        if (!isEnabled(level)) {
+            return;
+        }
+        StringBuilder sb = begin(level);
+        int arg = 0;
+        int from = 0;
+        int at;
+        while (arg < argc && (at = msg.indexOf("{}", from)) >= 0) {
+            sb.append(msg, from, at);
+            appendArg(sb, arg == 0 ? a : arg == 1 ? b : c);
+            arg++;
+            from = at + 2;
+        }
+        end(sb, msg, from);
+    }
+
+    // Bản cho tham số primitive: không autobox ở call site
+    private void log(Level level, String msg, long a, long b, int argc) {
+        if (!isEnabled(level)) {
+            return;
+        }
+        StringBuilder sb = begin(level);
+        int arg = 0;
+        int from = 0;
+        int at;
+        while (arg < argc && (at = msg.indexOf("{}", from)) >= 0) {
+            sb.append(msg, from, at).append(arg == 0 ? a : b);
+            arg++;
+            from = at + 2;
+        }
+        end(sb, msg, from);
+    }
+
+    private StringBuilder begin(Level level) {
+        StringBuilder sb = BUFFER.get();
+        sb.setLength(0);
+        return sb.append(System.currentTimeMillis()).append(' ')
+                .append(level.name()).append(' ')
+                .append(Thread.currentThread().getName()).append(' ')
+                .append(name).append(" - ");
+    }
+
+    private void end(StringBuilder sb, String msg, int from) {
+        sb.append(msg, from, msg.length());
+        sink.publish(sb);
+        if (sb.capacity() > 4096) {
+            sb.setLength(256);
+            sb.trimToSize();
+        }
+    }
+
+    private static void appendArg(StringBuilder sb, Object value) {
+        if (value instanceof CharSequence) {
+            sb.append((CharSequence) value);
+        } else if (value instanceof Long || value instanceof Integer) {
+            sb.append(((Number) value).longValue());
+        } else {
+            sb.append(value);
+        }
+    }
+}
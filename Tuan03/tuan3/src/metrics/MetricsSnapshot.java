@@ -0,0 +1,42 @@
+package metrics;
+
+import java.util.Map;
+
+public class MetricsSnapshot {
+    private final Map<String, Long> counters;
+    private final Map<String, Long> gauges;
+    private final Map<String, Histogram.Snapshot> histograms;
+
+    MetricsSnapshot(Map<String, Long> counters, Map<String, Long> gauges, Map<String, Histogram.Snapshot> histograms) {
+        this.counters = counters;
+        this.gauges = gauges;
+        this.histograms = histograms;
+    }
+
+    public Map<String, Long> getCounters() {
+        return counters;
+    }
+
+    public Map<String, Long> getGauges() {
+        return gauges;
+    }
+
+    public Map<String, Histogram.Snapshot> getHistograms() {
+        return histograms;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        counters.forEach((name, value) -> sb.append(name).append(' ').append(value).append('\n'));
+        gauges.forEach((name, value) -> sb.append(name).append(' ').append(value).append('\n'));
+        histograms.forEach((name, h) -> sb.append(name)
+                .append(" count=").append(h.count())
+                .append(" p50=").append(h.percentile(50))
+                .append(" p99=").append(h.percentile(99))
+                .append(" p999=").append(h.percentile(99.9))
+                .append(" max=").append(h.max())
+                .append('\n'));
+        return sb.toString();
+    }
+}
@@ -1,8 +1,16 @@
 package observer;
 
+import logging.Logger;
+import metrics.Counter;
+import metrics.MetricsRegistry;
+
 public class EmailNotifier implements Observer {
+    private static final Logger LOG = Logger.getLogger(EmailNotifier.class);
+    private static final Counter SENT = MetricsRegistry.global().counter("observer.email.sent");
+
     @Override
     public void update(String message) {
-        System.out.println("Email sent: " + message);
+        SENT.increment();
+        LOG.info("Email sent: {}", message);
     }
 }
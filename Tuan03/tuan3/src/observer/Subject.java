@@ -1,19 +1,59 @@
 package observer;
 
+import metrics.Counter;
+import metrics.Histogram;
+import metrics.MetricsRegistry;
+
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public abstract class Subject {
+    private static final Counter NOTIFICATIONS = MetricsRegistry.global().counter("observer.notifications");
+    private static final Histogram DISPATCH_NANOS = MetricsRegistry.global().histogram("observer.dispatch.nanos");
+
     protected List<Observer> observers = new ArrayList<>();
+    // Observer chỉ quan tâm một số key (vd status DONE) được index theo key,
+    // mỗi lần notify chỉ gọi những observer khớp thay vì bắt từng observer tự lọc
+    private final Map<String, List<Observer>> byKey = new HashMap<>();
 
     public void attach(Observer o) {
         observers.add(o);
     }
 
+    public void attach(Observer o, Set<String> keys) {
+        for (String key : keys) {
+            byKey.computeIfAbsent(key, k -> new ArrayList<>()).add(o);
+        }
+    }
+
+    public void detach(Observer o) {
+        observers.remove(o);
+        byKey.values().removeIf(list -> list.remove(o) && list.isEmpty());
+    }
+
     public void notifyObservers(String msg) {
+        long start = System.nanoTime();
         for (Observer o : observers) {
             o.update(msg);
         }
+        NOTIFICATIONS.add(observers.size());
+        DISPATCH_NANOS.record(System.nanoTime() - start);
     }
-}
 
+    // Observer attach không kèm key nhận mọi thông báo; observer attach kèm key chỉ nhận khi key khớp
+    public void notifyObservers(String key, String msg) {
+        long start = System.nanoTime();
+        for (Observer o : observers) {
+            o.update(msg);
+        }
+        List<Observer> matched = byKey.getOrDefault(key, List.of());
+        for (Observer o : matched) {
+            o.update(msg);
+        }
+        NOTIFICATIONS.add(observers.size() + matched.size());
+        DISPATCH_NANOS.record(System.nanoTime() - start);
+    }
+}
@@ -1,11 +1,21 @@
 package observer;
 
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+
 public class TaskService extends Subject {
     private String status;
 
+    // Chỉ nhận thông báo khi task chuyển sang một trong các status này (status trùng được gộp lại)
+    public void attach(Observer o, String... statuses) {
+        if (statuses.length == 0) {
+            throw new IllegalArgumentException("Cần ít nhất một status để lọc");
+        }
+        attach(o, new LinkedHashSet<>(Arrays.asList(statuses)));
+    }
+
     public void updateStatus(String status) {
         this.status = status;
-        notifyObservers("Task status changed to: " + status);
+        notifyObservers(status, "Task status changed to: " + status);
     }
 }
-
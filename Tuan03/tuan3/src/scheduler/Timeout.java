@@ -0,0 +1,48 @@
+package scheduler;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+public class Timeout {
+    static final int PENDING = 0;
+    static final int CANCELLED = 1;
+    static final int EXPIRED = 2;
+
+    private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+    final TimingWheel wheel;
+    final Runnable task;
+    final long deadlineTick;
+    private volatile int state = PENDING;
+
+    // danh sách liên kết kép trong slot, chỉ worker thread đụng vào
+    Timeout prev;
+    Timeout next;
+    TimingWheel.Bucket bucket;
+
+    Timeout(TimingWheel wheel, Runnable task, long deadlineTick) {
+        this.wheel = wheel;
+        this.task = task;
+        this.deadlineTick = deadlineTick;
+    }
+
+    public boolean cancel() {
+        if (!STATE.compareAndSet(this, PENDING, CANCELLED)) {
+            return false;
+        }
+        wheel.cancelled(this);
+        return true;
+    }
+
+    boolean expire() {
+        return STATE.compareAndSet(this, PENDING, EXPIRED);
+    }
+
+    public boolean isCancelled() {
+        return state == CANCELLED;
+    }
+
+    public boolean isExpired() {
+        return state == EXPIRED;
+    }
+}
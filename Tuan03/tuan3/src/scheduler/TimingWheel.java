@@ -0,0 +1,216 @@
+package scheduler;
+
+import logging.Logger;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+// Hashed hierarchical timing wheel: 4 tầng x 64 slot, schedule/cancel O(1).
+// Task chạy trên worker thread của wheel nên phải ngắn, việc nặng thì tự đẩy sang executor.
+public class TimingWheel {
+    private static final Logger LOG = Logger.getLogger(TimingWheel.class);
+    private static final int LEVELS = 4;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int MASK = SLOTS - 1;
+
+    private static volatile TimingWheel shared;
+
+    static final class Bucket {
+        Timeout head;
+
+        void add(Timeout t) {
+            t.bucket = this;
+            t.prev = null;
+            t.next = head;
+            if (head != null) {
+                head.prev = t;
+            }
+            head = t;
+        }
+
+        void remove(Timeout t) {
+            if (t.prev != null) {
+                t.prev.next = t.next;
+            } else {
+                head = t.next;
+            }
+            if (t.next != null) {
+                t.next.prev = t.prev;
+            }
+            t.prev = null;
+            t.next = null;
+            t.bucket = null;
+        }
+
+        Timeout takeAll() {
+            Timeout all = head;
+            head = null;
+            return all;
+        }
+    }
+
+    private final long tickNanos;
+    private final long startNanos;
+    private final Bucket[][] wheels = new Bucket[LEVELS][SLOTS];
+    private final Queue<Timeout> added = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Thread worker;
+    private volatile boolean running = true;
+    private long currentTick;
+
+    public TimingWheel(long tick, TimeUnit unit) {
+        if (tick <= 0) {
+            throw new IllegalArgumentException("tick must be > 0");
+        }
+        this.tickNanos = unit.toNanos(tick);
+        for (Bucket[] level : wheels) {
+            for (int i = 0; i < SLOTS; i++) {
+                level[i] = new Bucket();
+            }
+        }
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::run, "timing-wheel");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    // Wheel dùng chung cho RetryPolicy, CircuitBraker... tick 1ms
+    public static TimingWheel shared() {
+        TimingWheel w = shared;
+        if (w == null) {
+            synchronized (TimingWheel.class) {
+                w = shared;
+                if (w == null) {
+                    w = new TimingWheel(1, TimeUnit.MILLISECONDS);
+                    shared = w;
+                }
+            }
+        }
+        return w;
+    }
+
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (!running) {
+            throw new IllegalStateException("TimingWheel is stopped");
+        }
+        long deadlineNanos = System.nanoTime() - startNanos + Math.max(0, unit.toNanos(delay));
+        long deadlineTick = (deadlineNanos + tickNanos - 1) / tickNanos;
+        Timeout timeout = new Timeout(this, task, deadlineTick);
+        pending.incrementAndGet();
+        added.offer(timeout);
+        return timeout;
+    }
+
+    public int pending() {
+        return pending.get();
+    }
+
+    // Tick đang chạy; chỉ đúng khi đọc từ worker thread, tức là từ bên trong task
+    long currentTick() {
+        return currentTick;
+    }
+
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(worker);
+    }
+
+    void cancelled(Timeout timeout) {
+        pending.decrementAndGet();
+        cancelled.offer(timeout);
+    }
+
+    private void run() {
+        while (running) {
+            long nextTickAt = startNanos + (currentTick + 1) * tickNanos;
+            long sleep = nextTickAt - System.nanoTime();
+            if (sleep > 0) {
+                LockSupport.parkNanos(sleep);
+                continue;
+            }
+            drainCancelled();
+            drainAdded();
+            tick();
+        }
+    }
+
+    private void drainAdded() {
+        Timeout t;
+        while ((t = added.poll()) != null) {
+            if (!t.isCancelled()) {
+                // timer mới: sớm nhất là tick sắp chạy
+                place(t, currentTick + 1);
+            }
+        }
+    }
+
+    private void drainCancelled() {
+        Timeout t;
+        while ((t = cancelled.poll()) != null) {
+            if (t.bucket != null) {
+                t.bucket.remove(t);
+            }
+        }
+    }
+
+    // earliestTick chặn timer đã quá hạn: drainAdded chạy trước ++currentTick nên dùng currentTick + 1,
+    // cascade chạy sau ++currentTick và trước khi quét slot tầng 0 nên dùng chính currentTick (vẫn nổ đúng tick)
+    private void place(Timeout t, long earliestTick) {
+        long deadline = Math.max(t.deadlineTick, earliestTick);
+        long delta = deadline - currentTick;
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < (1L << (SLOT_BITS * (level + 1))) || level == LEVELS - 1) {
+                // quá tầng cao nhất thì để ở slot xa nhất, cascade lại sau
+                long slotTick = level == LEVELS - 1 && delta >= (1L << (SLOT_BITS * LEVELS))
+                        ? currentTick + (1L << (SLOT_BITS * LEVELS)) - 1
+                        : deadline;
+                int slot = (int) ((slotTick >>> (SLOT_BITS * level)) & MASK);
+                wheels[level][slot].add(t);
+                return;
+            }
+        }
+    }
+
+    private void tick() {
+        long tick = ++currentTick;
+        // Cascade kiểu Linux: khi tầng dưới quay hết vòng thì đổ slot tầng trên xuống
+        for (int level = 1; level < LEVELS; level++) {
+            if ((tick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                break;
+            }
+            int slot = (int) ((tick >>> (SLOT_BITS * level)) & MASK);
+            Timeout t = wheels[level][slot].takeAll();
+            while (t != null) {
+                Timeout next = t.next;
+                t.prev = null;
+                t.next = null;
+                t.bucket = null;
+                place(t, tick);
+                t = next;
+            }
+        }
+        Timeout t = wheels[0][(int) (tick & MASK)].takeAll();
+        while (t != null) {
+            Timeout next = t.next;
+            t.prev = null;
+            t.next = null;
+            t.bucket = null;
+            if (t.deadlineTick > tick) {
+                place(t, tick + 1);
+            } else if (t.expire()) {
+                pending.decrementAndGet();
+                try {
+                    t.task.run();
+                } catch (RuntimeException e) {
+                    LOG.error("Timer task failed: {}", e.getMessage());
+                }
+            }
+            t = next;
+        }
+    }
+}
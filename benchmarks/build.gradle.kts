@@ -0,0 +1,115 @@
+plugins {
+    java
+    id("me.champeau.jmh") version "0.7.3"
+}
+
+group = "iuh.fit.se"
+version = "0.0.1-SNAPSHOT"
+description = "JMH benchmarks va test cho tuan3, Tuan02 va Resilience4j"
+
+java {
+    toolchain {
+        languageVersion = JavaLanguageVersion.of(21)
+    }
+}
+
+repositories {
+    mavenCentral()
+}
+
+// Dùng thẳng source của các module IntelliJ, không copy code.
+// Main.java của tuan3 bị loại để không trùng với Main (default package) của Tuan02/Status.
+sourceSets {
+    main {
+        java {
+            srcDir("../Tuan03/tuan3/src")
+            srcDir("../Tuan02/Status/src")
+            exclude { it.file.invariantSeparatorsPath.endsWith("Tuan03/tuan3/src/Main.java") }
+        }
+    }
+}
+
+// ObserverPattern cũng có Main ở default package (trùng Tuan02/Status) nên compile riêng cùng test của nó
+val observerTest by sourceSets.creating {
+    java {
+        srcDir("../Tuan03/ObserverPattern/src")
+        srcDir("src/observerTest/java")
+    }
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+dependencies {
+    testImplementation(platform("org.junit:junit-bom:5.10.2"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+    jmh("io.github.resilience4j:resilience4j-retry:2.2.0")
+    jmh("io.github.resilience4j:resilience4j-circuitbreaker:2.2.0")
+    jmh("io.github.resilience4j:resilience4j-bulkhead:2.2.0")
+}
+
+configurations["observerTestImplementation"].extendsFrom(configurations.testImplementation.get())
+configurations["observerTestRuntimeOnly"].extendsFrom(configurations.testRuntimeOnly.get())
+
+val observerPatternTest = tasks.register<Test>("observerTest") {
+    group = "verification"
+    description = "Test cho Tuan03/ObserverPattern (src/observerTest/java)"
+    testClassesDirs = observerTest.output.classesDirs
+    classpath = observerTest.runtimeClasspath
+    useJUnitPlatform()
+}
+
+// Module này compile sẵn source tuan3/Tuan02 nên test cho các module IntelliJ đó cũng đặt ở đây (src/test/java)
+tasks.test {
+    useJUnitPlatform()
+    systemProperty("log.level", "ERROR")
+    dependsOn(observerPatternTest)
+}
+
+// Không có wrapper riêng, dùng wrapper của app Resilience4j:
+//   ../22658451_HoangNguyenDucManh_Onl1/Resilience4J/FaultToleranceWithResilience4j/gradlew -p benchmarks jmh
+// -PjmhInclude=Loadbalancer lọc benchmark. -PjmhThreads=1,2,4,8 + task jmhSweep chạy lại với từng số thread,
+// mỗi lần ghi build/results/jmh/results-t<N>.json; task jmh thường chỉ dùng giá trị đầu tiên.
+val jmhThreadCounts = (project.findProperty("jmhThreads") ?: "1").toString()
+    .split(",").map { it.trim().toInt() }
+val jmhInclude = project.findProperty("jmhInclude") as String?
+// Benchmark đo code chứ không đo log: chỉ ghi ERROR
+val benchmarkJvmArgs = listOf("-Dlog.file=build/jmh-app.log", "-Dlog.level=ERROR")
+
+jmh {
+    jmhVersion = "1.37"
+    threads = jmhThreadCounts.first()
+    jmhInclude?.let { includes = listOf(it) }
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+    profilers = listOf("gc")
+    resultFormat = "JSON"
+    resultsFile = layout.buildDirectory.file("results/jmh/results.json")
+    jvmArgs = benchmarkJvmArgs
+}
+
+val sweepTasks = jmhThreadCounts.map { t ->
+    tasks.register<JavaExec>("jmhThreads$t") {
+        group = "benchmark"
+        description = "Chạy JMH với $t thread"
+        val jar = tasks.named<Jar>("jmhJar").flatMap { it.archiveFile }
+        inputs.file(jar)
+        classpath(jar)
+        mainClass = "org.openjdk.jmh.Main"
+        val results = layout.buildDirectory.file("results/jmh/results-t$t.json").get().asFile
+        doFirst { results.parentFile.mkdirs() }
+        args(listOf("-t", "$t", "-f", "1", "-wi", "3", "-i", "5", "-prof", "gc",
+            "-rf", "json", "-rff", results.absolutePath,
+            "-jvmArgsAppend", benchmarkJvmArgs.joinToString(" ")) + listOfNotNull(jmhInclude))
+    }
+}
+sweepTasks.zipWithNext { a, b -> b.configure { mustRunAfter(a) } }
+
+tasks.register("jmhSweep") {
+    group = "benchmark"
+    description = "Chạy JMH lần lượt với mọi số thread trong -PjmhThreads"
+    dependsOn(sweepTasks)
+}
@@ -0,0 +1,71 @@
+package benchmarks;
+
+import faulttolerance.CircuitBraker;
+import faulttolerance.RetryPolicy;
+import logging.Level;
+import logging.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FaultToleranceBenchmark {
+    CircuitBraker closed;
+    CircuitBraker open;
+
+    @Setup
+    public void setup() {
+        // Nhánh open và retry đều log WARN mỗi lần gọi; tắt để không đo I/O log
+        Logger.setLevel(Level.ERROR);
+        closed = new CircuitBraker();
+        open = new CircuitBraker();
+        try {
+            open.call(() -> {
+                throw new IllegalStateException("trip");
+            });
+        } catch (IllegalStateException expected) {
+            // breaker ghi nhận lỗi rồi ném tiếp, từ đây open luôn ở trạng thái OPEN
+        }
+    }
+
+    @Benchmark
+    public void circuitBrakerClosed(Blackhole bh) {
+        closed.call(() -> bh.consume(1));
+    }
+
+    @Benchmark
+    public void circuitBrakerOpen(Blackhole bh) {
+        open.call(() -> bh.consume(1));
+    }
+
+    @Benchmark
+    public void retrySuccessFirstAttempt(Blackhole bh) {
+        RetryPolicy.execute(() -> bh.consume(1), 3);
+    }
+
+    @State(Scope.Thread)
+    public static class Failures {
+        int remaining;
+    }
+
+    // 2 lần lỗi rồi mới thành công: đo chi phí exception + đếm retry
+    @Benchmark
+    public void retryTwoFailures(Failures f, Blackhole bh) {
+        f.remaining = 2;
+        RetryPolicy.execute(() -> {
+            if (f.remaining-- > 0) {
+                throw new IllegalStateException("fail");
+            }
+            bh.consume(1);
+        }, 3);
+    }
+}
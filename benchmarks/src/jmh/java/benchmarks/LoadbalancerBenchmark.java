@@ -0,0 +1,40 @@
+package benchmarks;
+
+import loadbalancer.Loadbalancer;
+import loadbalancer.Server;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LoadbalancerBenchmark {
+    @Param({"2", "16", "256"})
+    int servers;
+
+    Loadbalancer lb;
+
+    @Setup
+    public void setup() {
+        List<Server> list = new ArrayList<>();
+        for (int i = 0; i < servers; i++) {
+            list.add(new Server("server-" + i));
+        }
+        lb = new Loadbalancer(list);
+    }
+
+    @Benchmark
+    public Server nextServer() {
+        return lb.nextServer();
+    }
+}
@@ -0,0 +1,41 @@
+package benchmarks;
+
+import observer.Observer;
+import observer.TaskService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ObserverBenchmark {
+    @Param({"10", "1000", "100000"})
+    int observers;
+
+    TaskService taskService;
+    Blackhole blackhole;
+
+    @Setup
+    public void setup(Blackhole bh) {
+        blackhole = bh;
+        taskService = new TaskService();
+        Observer sink = message -> blackhole.consume(message);
+        for (int i = 0; i < observers; i++) {
+            taskService.attach(sink);
+        }
+    }
+
+    @Benchmark
+    public void notifyObservers() {
+        taskService.notifyObservers("Task status changed to: DONE");
+    }
+}
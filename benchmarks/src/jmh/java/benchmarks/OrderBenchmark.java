@@ -0,0 +1,132 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+// Tuan02/Status nằm ở default package nên không import được; gọi qua MethodHandle static final
+// (JIT inline như gọi trực tiếp). Chuỗi decorator và chu trình NEW -> PROCESSING -> DELIVERED -> CANCELLED.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OrderBenchmark {
+    private static final MethodHandle NEW_BASIC;
+    private static final MethodHandle NEW_GIFT_WRAP;
+    private static final MethodHandle NEW_EXPRESS;
+    private static final MethodHandle GET_COST;
+    private static final MethodHandle GET_DESCRIPTION;
+    private static final MethodHandle NEW_ORDER;
+    private static final MethodHandle SET_STATUS;
+    private static final Object MACHINE;
+    private static final Object PROCESSING;
+    private static final Object DELIVERED;
+    private static final Object CANCELLED;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            ClassLoader cl = OrderBenchmark.class.getClassLoader();
+            Class<?> service = Class.forName("OrderService", true, cl);
+            Class<?> basic = Class.forName("BasicOrder", true, cl);
+            Class<?> gift = Class.forName("GiftWrap", true, cl);
+            Class<?> express = Class.forName("ExpressDelivery", true, cl);
+            Class<?> order = Class.forName("Order", true, cl);
+            Class<?> machine = Class.forName("OrderStateMachine", true, cl);
+            Class<?> status = Class.forName("OrderStatus", true, cl);
+
+            NEW_BASIC = handle(lookup, basic.getDeclaredConstructor())
+                    .asType(MethodType.methodType(Object.class));
+            NEW_GIFT_WRAP = handle(lookup, gift.getDeclaredConstructor(service))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+            NEW_EXPRESS = handle(lookup, express.getDeclaredConstructor(service))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+            GET_COST = handle(lookup, service.getDeclaredMethod("getCost"))
+                    .asType(MethodType.methodType(double.class, Object.class));
+            GET_DESCRIPTION = handle(lookup, service.getDeclaredMethod("getDescription"))
+                    .asType(MethodType.methodType(String.class, Object.class));
+            NEW_ORDER = handle(lookup, order.getDeclaredConstructor(long.class, machine))
+                    .asType(MethodType.methodType(Object.class, long.class, Object.class));
+            SET_STATUS = handle(lookup, order.getDeclaredMethod("setStatus", status))
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class));
+
+            Method standard = machine.getDeclaredMethod("standard");
+            standard.setAccessible(true);
+            MACHINE = standard.invoke(null);
+            Object[] statuses = status.getEnumConstants();
+            PROCESSING = statuses[1];
+            DELIVERED = statuses[2];
+            CANCELLED = statuses[3];
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle handle(MethodHandles.Lookup lookup, Executable e)
+            throws IllegalAccessException {
+        e.setAccessible(true);
+        return e instanceof Constructor
+                ? lookup.unreflectConstructor((Constructor<?>) e)
+                : lookup.unreflect((Method) e);
+    }
+
+    @Param({"1", "4", "16"})
+    int decorators;
+
+    Object chain;
+
+    // Mỗi thread một bộ đếm id riêng, không chia sẻ state khi chạy -t > 1
+    @State(Scope.Thread)
+    public static class Ids {
+        long nextId;
+    }
+
+    @Setup
+    public void setup() throws Throwable {
+        chain = buildChain();
+    }
+
+    private Object buildChain() throws Throwable {
+        Object o = (Object) NEW_BASIC.invokeExact();
+        for (int i = 0; i < decorators; i++) {
+            o = (i & 1) == 0 ? (Object) NEW_GIFT_WRAP.invokeExact(o) : (Object) NEW_EXPRESS.invokeExact(o);
+        }
+        return o;
+    }
+
+    @Benchmark
+    public double decoratorCost() throws Throwable {
+        return (double) GET_COST.invokeExact(chain);
+    }
+
+    @Benchmark
+    public String decoratorDescription() throws Throwable {
+        return (String) GET_DESCRIPTION.invokeExact(chain);
+    }
+
+    @Benchmark
+    public Object decoratorBuild() throws Throwable {
+        return buildChain();
+    }
+
+    @Benchmark
+    public Object stateTransitions(Ids ids) throws Throwable {
+        Object order = (Object) NEW_ORDER.invokeExact(ids.nextId++, MACHINE);
+        SET_STATUS.invokeExact(order, PROCESSING);
+        SET_STATUS.invokeExact(order, DELIVERED);
+        SET_STATUS.invokeExact(order, CANCELLED);
+        return order;
+    }
+}
@@ -0,0 +1,95 @@
+package benchmarks;
+
+import adapter.DataAdapter;
+import adapter.TaskEventDecoder;
+import adapter.XMLService;
+import adapter.XMLtoBinaryAdapter;
+import adapter.XMLtoJSONAdapter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import security.EncryptionUtil;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PayloadBenchmark {
+    // XMLtoJSONAdapter.convert trả về hằng, không phụ thuộc input nên không tham số hóa theo kích thước
+    @State(Scope.Benchmark)
+    public static class Json {
+        DataAdapter adapter;
+        String xml;
+
+        @Setup
+        public void setup() {
+            XMLService service = new XMLService();
+            adapter = new XMLtoJSONAdapter(service);
+            xml = service.readXML();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Payload {
+        @Param({"64", "4096", "65536"})
+        int payloadSize;
+
+        String xml;
+        String json;
+        XMLtoBinaryAdapter binaryAdapter;
+        TaskEventDecoder decoder;
+        ByteBuffer buffer;
+        ByteBuffer encoded;
+
+        @Setup
+        public void setup() {
+            DataAdapter adapter = new XMLtoJSONAdapter(new XMLService());
+            StringBuilder sb = new StringBuilder("<task><status>DONE</status><note>");
+            while (sb.length() < payloadSize - 14) {
+                sb.append('x');
+            }
+            xml = sb.append("</note></task>").toString();
+            json = adapter.convert(xml);
+            StringBuilder js = new StringBuilder(json);
+            while (js.length() < payloadSize) {
+                js.append(' ');
+            }
+            json = js.toString();
+
+            binaryAdapter = new XMLtoBinaryAdapter(new XMLService());
+            decoder = new TaskEventDecoder();
+            buffer = ByteBuffer.allocate(payloadSize * 3 + 32);
+            encoded = ByteBuffer.allocate(payloadSize * 3 + 32);
+            binaryAdapter.encode(xml, encoded);
+            encoded.flip();
+        }
+    }
+
+    @Benchmark
+    public String convert(Json s) {
+        return s.adapter.convert(s.xml);
+    }
+
+    @Benchmark
+    public int encodeBinary(Payload p) {
+        p.buffer.clear();
+        return p.binaryAdapter.encode(p.xml, p.buffer);
+    }
+
+    @Benchmark
+    public long decodeBinary(Payload p) {
+        p.decoder.wrap(p.encoded, 0);
+        return p.decoder.taskId() + p.decoder.status().ordinal() + p.decoder.noteLength();
+    }
+
+    @Benchmark
+    public String encrypt(Payload p) {
+        return EncryptionUtil.encrypt(p.json);
+    }
+}
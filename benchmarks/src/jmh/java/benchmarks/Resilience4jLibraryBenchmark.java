@@ -0,0 +1,63 @@
+package benchmarks;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Micro-benchmark của riêng thư viện Resilience4j: instance dựng tay, gọi decorator trực tiếp, không có Spring,
+// aspect (@Retry/@CircuitBreaker/@Bulkhead), DeadlineAspect hay admission control của app.
+// Thông số và thứ tự lồng (Retry > CircuitBreaker > Bulkhead) chép theo serviceB trong application.properties,
+// bỏ RateLimiter (5 req/10s sẽ chặn hết benchmark); bulkhead cho đợi 1s để -PjmhThreads > 10 đo tranh chấp.
+// Chi phí của cấu hình thật trong app đo bằng task loadTest của FaultToleranceWithResilience4j.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class Resilience4jLibraryBenchmark {
+    Supplier<String> direct;
+    Supplier<String> decorated;
+
+    @Setup
+    public void setup() {
+        Retry retry = Retry.of("serviceB", RetryConfig.custom()
+                .maxAttempts(3)
+                .waitDuration(Duration.ofSeconds(2))
+                .build());
+        CircuitBreaker circuitBreaker = CircuitBreaker.of("serviceB", CircuitBreakerConfig.custom()
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofSeconds(10))
+                .build());
+        Bulkhead bulkhead = Bulkhead.of("serviceB", BulkheadConfig.custom()
+                .maxConcurrentCalls(10)
+                .maxWaitDuration(Duration.ofSeconds(1))
+                .build());
+
+        direct = () -> "Xin chào! Đây là dữ liệu từ Node.js Service.";
+        Supplier<String> s = Bulkhead.decorateSupplier(bulkhead, direct);
+        s = CircuitBreaker.decorateSupplier(circuitBreaker, s);
+        decorated = Retry.decorateSupplier(retry, s);
+    }
+
+    @Benchmark
+    public String baseline() {
+        return direct.get();
+    }
+
+    @Benchmark
+    public String retryCircuitBreakerBulkhead() {
+        return decorated.get();
+    }
+}
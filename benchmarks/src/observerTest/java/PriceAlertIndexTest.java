@@ -0,0 +1,70 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Default package như Main.java của ObserverPattern để thấy các class package-private
+class PriceAlertIndexTest {
+    // So với cách làm ngây thơ: sau mỗi lần đổi giá, alert được gọi đúng một lần nếu giá vừa đi vào khoảng
+    // (hoặc là giá đầu tiên và nằm trong khoảng); alert thêm khi giá đã ở trong khoảng được gọi ngay lúc add
+    @Test
+    void matchesBruteForceUnderRandomAddRemoveAndPrices() {
+        Random random = new Random(7);
+        for (int round = 0; round < 500; round++) {
+            PriceAlertIndex index = new PriceAlertIndex();
+            List<PriceAlert> live = new ArrayList<>();
+            Map<PriceAlert, int[]> hits = new IdentityHashMap<>();
+            int target = random.nextInt(50);
+            Long last = null;
+            for (int step = 0; step < 300; step++) {
+                int op = random.nextInt(10);
+                String where = "round " + round + " step " + step;
+                if (op == 0 || live.size() < target) {
+                    long low = random.nextInt(100) - 50;
+                    long high = low + random.nextInt(30);
+                    int[] count = new int[1];
+                    PriceAlert alert = index.add(state -> count[0]++, low, high);
+                    live.add(alert);
+                    hits.put(alert, count);
+                    assertEquals(last != null && alert.contains(last) ? 1 : 0, count[0], where + " add");
+                } else if (op == 1 && !live.isEmpty()) {
+                    index.remove(live.remove(random.nextInt(live.size())));
+                } else {
+                    long price = random.nextInt(120) - 60;
+                    Map<PriceAlert, Integer> before = new IdentityHashMap<>();
+                    for (PriceAlert alert : live) {
+                        before.put(alert, hits.get(alert)[0]);
+                    }
+                    int notified = index.onPrice(price);
+                    int expected = 0;
+                    for (PriceAlert alert : live) {
+                        boolean entered = alert.contains(price) && (last == null || !alert.contains(last));
+                        assertEquals(entered ? 1 : 0, hits.get(alert)[0] - before.get(alert), where);
+                        if (entered) {
+                            expected++;
+                        }
+                    }
+                    assertEquals(expected, notified, where);
+                    last = price;
+                }
+            }
+        }
+    }
+
+    @Test
+    void alertAddedInsideCurrentRangeFiresOnceOnAdd() {
+        Stock stock = new Stock();
+        List<String> received = new ArrayList<>();
+        stock.setPrice(MarketDataFeed.toFixed(120));
+
+        stock.subscribe(received::add, MarketDataFeed.toFixed(100), MarketDataFeed.toFixed(150));
+        stock.setPrice(MarketDataFeed.toFixed(130));
+
+        assertEquals(List.of("Price = 120.0000$"), received);
+    }
+}
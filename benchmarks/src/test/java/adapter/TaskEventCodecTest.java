@@ -0,0 +1,176 @@
+package adapter;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TaskEventCodecTest {
+    private final TaskEventEncoder encoder = new TaskEventEncoder();
+    private final TaskEventDecoder decoder = new TaskEventDecoder();
+
+    private TaskEventDecoder roundTrip(long taskId, TaskStatus status, long updatedAt, String note, int offset) {
+        ByteBuffer buffer = ByteBuffer.allocate(offset + 64 + note.length() * 4);
+        int length = encoder.wrap(buffer, offset)
+                .taskId(taskId)
+                .status(status)
+                .updatedAt(updatedAt)
+                .note(note)
+                .encodedLength();
+        decoder.wrap(buffer, offset);
+        assertEquals(length, decoder.encodedLength());
+        return decoder;
+    }
+
+    @Test
+    void varintBoundariesRoundTrip() {
+        long[] values = {0, 127, 128, 16_383, 16_384, Long.MAX_VALUE};
+        int[] lengths = {1, 1, 2, 2, 3, 9};
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(lengths[i], Varint.length(values[i]), "length of " + values[i]);
+            TaskEventDecoder d = roundTrip(values[i], TaskStatus.DONE, values[i], "", 0);
+            assertEquals(values[i], d.taskId());
+            assertEquals(values[i], d.updatedAt());
+            // version + 2 varint + status + độ dài note (0)
+            assertEquals(1 + 2 * lengths[i] + 1 + 1, d.encodedLength());
+        }
+    }
+
+    @Test
+    void negativeValuesTakeTenBytesAndRoundTrip() {
+        for (long value : new long[]{-1, Long.MIN_VALUE}) {
+            assertEquals(10, Varint.length(value));
+            TaskEventDecoder d = roundTrip(value, TaskStatus.FAILED, value, "x", 0);
+            assertEquals(value, d.taskId());
+            assertEquals(value, d.updatedAt());
+            assertEquals(TaskStatus.FAILED, d.status());
+        }
+    }
+
+    @Test
+    void emptyNote() {
+        TaskEventDecoder d = roundTrip(1, TaskStatus.TODO, 2, "", 0);
+        assertEquals(0, d.noteLength());
+        assertEquals("", d.note());
+        assertEquals("", d.appendNote(new StringBuilder()).toString());
+    }
+
+    @Test
+    void nonAsciiAndSurrogatePairNotes() {
+        String[] notes = {"Giao hàng trước 17h ✓", "📦 đã tới kho 🚚", "ascii only"};
+        for (String note : notes) {
+            TaskEventDecoder d = roundTrip(7, TaskStatus.IN_PROGRESS, 8, note, 0);
+            assertEquals(note.getBytes(StandardCharsets.UTF_8).length, d.noteLength(), note);
+            assertEquals(note, d.note());
+            assertEquals(note, d.appendNote(new StringBuilder()).toString());
+        }
+    }
+
+    @Test
+    void decodesAtNonZeroOffset() {
+        TaskEventDecoder d = roundTrip(1024, TaskStatus.IN_PROGRESS, 1_760_000_000_000L, "offset ✓", 37);
+        assertEquals(1024, d.taskId());
+        assertEquals(TaskStatus.IN_PROGRESS, d.status());
+        assertEquals(1_760_000_000_000L, d.updatedAt());
+        assertEquals("offset ✓", d.note());
+    }
+
+    @Test
+    void adapterEncodesAtPositionFromAnyCharSequence() {
+        XMLtoBinaryAdapter adapter = new XMLtoBinaryAdapter(new XMLService());
+        String xml = "<task><id>1024</id><status>IN_PROGRESS</status><updatedAt>1760000000000</updatedAt>"
+                + "<note>Giao hàng trước 17h ✓</note></task>";
+        ByteBuffer fromString = ByteBuffer.allocate(256);
+        fromString.position(11);
+        int length = adapter.encode(xml, fromString);
+        assertEquals(11 + length, fromString.position());
+
+        ByteBuffer fromBuilder = ByteBuffer.allocate(256);
+        fromBuilder.position(11);
+        assertEquals(length, adapter.encode(new StringBuilder(xml), fromBuilder));
+        assertArrayEquals(Arrays.copyOfRange(fromString.array(), 11, 11 + length),
+                Arrays.copyOfRange(fromBuilder.array(), 11, 11 + length));
+        assertArrayEquals(Arrays.copyOfRange(fromString.array(), 11, 11 + length),
+                adapter.convert(xml).getBytes(StandardCharsets.ISO_8859_1));
+
+        decoder.wrap(fromString, 11);
+        assertEquals(1024, decoder.taskId());
+        assertEquals(TaskStatus.IN_PROGRESS, decoder.status());
+        assertEquals(1_760_000_000_000L, decoder.updatedAt());
+        assertEquals("Giao hàng trước 17h ✓", decoder.note());
+    }
+
+    @Test
+    void missingTagsFallBackToDefaults() {
+        XMLtoBinaryAdapter adapter = new XMLtoBinaryAdapter(new XMLService());
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        adapter.encode("<task></task>", buffer);
+        decoder.wrap(buffer, 0);
+        assertEquals(0, decoder.taskId());
+        assertEquals(TaskStatus.TODO, decoder.status());
+        assertEquals(0, decoder.updatedAt());
+        assertEquals("", decoder.note());
+        assertThrows(IllegalArgumentException.class,
+                () -> adapter.encode("<task><status>LOST</status></task>", ByteBuffer.allocate(64)));
+    }
+
+    // Event có note dài `noteLength` (ghi thẳng varint, không kèm byte note)
+    private static ByteBuffer withNoteLength(long noteLength) {
+        ByteBuffer buffer = ByteBuffer.allocate(32);
+        int pos = 0;
+        buffer.put(pos++, TaskEventEncoder.SCHEMA_VERSION);
+        pos += Varint.put(buffer, pos, 1);
+        buffer.put(pos++, (byte) TaskStatus.DONE.ordinal());
+        pos += Varint.put(buffer, pos, 2);
+        pos += Varint.put(buffer, pos, noteLength);
+        return buffer.limit(pos);
+    }
+
+    @Test
+    void rejectsNegativeOrOverlongNoteLength() {
+        assertThrows(IllegalArgumentException.class, () -> decoder.wrap(withNoteLength(-1), 0));
+        assertThrows(IllegalArgumentException.class, () -> decoder.wrap(withNoteLength(Integer.MAX_VALUE + 1L), 0));
+        assertThrows(IllegalArgumentException.class, () -> decoder.wrap(withNoteLength(5), 0));
+        decoder.wrap(withNoteLength(0), 0);
+        assertEquals("", decoder.note());
+    }
+
+    @Test
+    void rejectsTruncatedOrOversizedVarints() {
+        ByteBuffer truncated = ByteBuffer.allocate(16);
+        truncated.put(0, TaskEventEncoder.SCHEMA_VERSION);
+        truncated.put(1, (byte) 0x80); // còn byte tiếp theo nhưng buffer hết
+        assertThrows(IllegalArgumentException.class, () -> decoder.wrap(truncated.limit(2), 0));
+
+        ByteBuffer elevenBytes = ByteBuffer.allocate(16);
+        elevenBytes.put(0, TaskEventEncoder.SCHEMA_VERSION);
+        for (int i = 1; i <= 11; i++) {
+            elevenBytes.put(i, (byte) 0x80);
+        }
+        assertThrows(IllegalArgumentException.class, () -> decoder.wrap(elevenBytes, 0));
+
+        ByteBuffer overflow = ByteBuffer.allocate(16);
+        overflow.put(0, TaskEventEncoder.SCHEMA_VERSION);
+        for (int i = 1; i <= 9; i++) {
+            overflow.put(i, (byte) 0xFF);
+        }
+        overflow.put(10, (byte) 0x02); // bit thứ 65
+        assertThrows(IllegalArgumentException.class, () -> decoder.wrap(overflow, 0));
+    }
+
+    @Test
+    void rejectsUnknownVersionAndStatus() {
+        ByteBuffer buffer = withNoteLength(0);
+        buffer.put(0, (byte) 2);
+        assertThrows(IllegalArgumentException.class, () -> decoder.wrap(buffer, 0));
+
+        ByteBuffer badStatus = withNoteLength(0);
+        badStatus.put(2, (byte) 0x7F);
+        assertThrows(IllegalArgumentException.class, () -> decoder.wrap(badStatus, 0));
+    }
+}
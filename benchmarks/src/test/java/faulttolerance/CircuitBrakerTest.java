@@ -0,0 +1,38 @@
+package faulttolerance;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBrakerTest {
+    @Test
+    void failureIsRecordedAndRethrown() {
+        CircuitBraker breaker = new CircuitBraker();
+        IllegalStateException failure = new IllegalStateException("down");
+
+        assertSame(failure, assertThrows(IllegalStateException.class, () -> breaker.call(() -> {
+            throw failure;
+        })));
+        assertTrue(breaker.isOpen());
+    }
+
+    // Trước đây breaker nuốt lỗi nên RetryPolicy coi lần gọi lỗi là thành công
+    @Test
+    void retryPolicySeesFailuresThroughTheBreaker() {
+        CircuitBraker breaker = new CircuitBraker();
+        IllegalStateException failure = new IllegalStateException("down");
+
+        CompletableFuture<Void> result = RetryPolicy.executeWithBackoff(() -> breaker.call(() -> {
+            throw failure;
+        }), 1, 1);
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertSame(failure, error.getCause());
+    }
+}
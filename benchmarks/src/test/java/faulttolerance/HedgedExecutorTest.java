@@ -0,0 +1,74 @@
+package faulttolerance;
+
+import loadbalancer.Loadbalancer;
+import loadbalancer.Server;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HedgedExecutorTest {
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Timer đã giành quyền hedge nhưng chưa gửi thì lần đầu lỗi: request phải chờ hedge chứ không fail
+    @Test
+    void primaryFailingWhileHedgeIsBeingSentDoesNotFailTheRequest() throws Exception {
+        CountDownLatch hedging = new CountDownLatch(1);
+        Loadbalancer lb = new Loadbalancer(List.of(new Server("a"), new Server("b"))) {
+            @Override
+            public Server nextServerExcluding(Server exclude) {
+                hedging.countDown();
+                try {
+                    // cho lần đầu kịp lỗi và trả pending trước khi hedge được gửi
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.nextServerExcluding(exclude);
+            }
+        };
+        HedgedExecutor hedged = new HedgedExecutor(lb, executor, 95, 1.0, 1);
+        AtomicReference<Server> primary = new AtomicReference<>();
+
+        String result = hedged.execute(server -> {
+            if (primary.compareAndSet(null, server)) {
+                try {
+                    hedging.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IllegalStateException("primary down");
+            }
+            return server.getName();
+        }).get(5, TimeUnit.SECONDS);
+
+        assertNotEquals(primary.get().getName(), result);
+    }
+
+    @Test
+    void bothAttemptsFailingReportsTheLastFailure() {
+        HedgedExecutor hedged = new HedgedExecutor(new Loadbalancer(List.of(new Server("a"), new Server("b"))),
+                executor, 95, 1.0, 10_000);
+        CompletableFuture<String> result = hedged.execute(server -> {
+            throw new IllegalStateException(server.getName() + " down");
+        });
+        ExecutionException error = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertEquals(IllegalStateException.class, error.getCause().getClass());
+    }
+}
@@ -0,0 +1,102 @@
+package loadbalancer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadbalancerTest {
+    private static List<Server> servers(int n) {
+        List<Server> list = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            list.add(new Server("server-" + i));
+        }
+        return list;
+    }
+
+    private static Server route(Loadbalancer lb, String key) {
+        return lb.execute(key, server -> server);
+    }
+
+    @Test
+    void addingEleventhServerRemapsAboutOneEleventhOfKeys() {
+        Loadbalancer lb = new Loadbalancer(servers(10));
+        Map<String, Server> before = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            before.put("task-" + i, route(lb, "task-" + i));
+        }
+        Server added = new Server("server-10");
+        lb.addServer(added);
+
+        int moved = 0;
+        for (Map.Entry<String, Server> e : before.entrySet()) {
+            Server now = route(lb, e.getKey());
+            if (now != e.getValue()) {
+                moved++;
+                // key chỉ được chuyển sang server mới, không xáo trộn giữa các server cũ
+                assertSame(added, now, e.getKey());
+            }
+        }
+        double ratio = moved / 10_000.0;
+        assertTrue(ratio > 0.05 && ratio < 0.14, "remapped ratio " + ratio);
+    }
+
+    @Test
+    void sameKeyStaysOnSameServerWithoutLoad() {
+        Loadbalancer lb = new Loadbalancer(servers(5));
+        Server home = route(lb, "task-42");
+        for (int i = 0; i < 100; i++) {
+            assertSame(home, route(lb, "task-42"));
+        }
+    }
+
+    @Test
+    void overloadedHomeSpillsOverUntilReleased() {
+        Loadbalancer lb = new Loadbalancer(servers(4));
+        Server home = route(lb, "hot");
+        List<Server> held = new ArrayList<>();
+        Server server = lb.acquire("hot");
+        while (server == home) {
+            held.add(server);
+            server = lb.acquire("hot");
+        }
+        // 1.25 x tải trung bình của 4 server: home bị đẩy sang server khác sau vài request đang chạy
+        assertTrue(held.size() >= 1 && held.size() <= 3, "held " + held.size());
+        assertNotSame(home, server);
+        lb.release(server);
+        held.forEach(lb::release);
+        assertEquals(0, home.inFlight());
+        assertSame(home, route(lb, "hot"));
+    }
+
+    @Test
+    void executeReleasesInFlightEvenWhenCallFails() {
+        Loadbalancer lb = new Loadbalancer(servers(3));
+        Server home = route(lb, "task-1");
+        try {
+            lb.execute("task-1", s -> {
+                throw new IllegalStateException("boom");
+            });
+        } catch (IllegalStateException expected) {
+            // bỏ qua
+        }
+        assertEquals(0, home.inFlight());
+    }
+
+    @Test
+    void nextServerExcludingNeverReturnsExcluded() {
+        Loadbalancer lb = new Loadbalancer(servers(3));
+        Server excluded = lb.nextServer();
+        for (int i = 0; i < 30; i++) {
+            assertNotEquals(excluded, lb.nextServerExcluding(excluded));
+        }
+    }
+}
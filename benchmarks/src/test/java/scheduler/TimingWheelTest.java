@@ -0,0 +1,61 @@
+package scheduler;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TimingWheelTest {
+    private final TimingWheel wheel = new TimingWheel(1, TimeUnit.MILLISECONDS);
+
+    @AfterEach
+    void shutdown() {
+        wheel.shutdown();
+    }
+
+    private CompletableFuture<Long> firedAt(long delayMillis, List<Timeout> timeouts) {
+        CompletableFuture<Long> fired = new CompletableFuture<>();
+        timeouts.add(wheel.schedule(() -> fired.complete(wheel.currentTick()), delayMillis, TimeUnit.MILLISECONDS));
+        return fired;
+    }
+
+    // Worker xử lý từng tick theo thứ tự kể cả khi bị trễ, nên tick lúc nổ phải đúng bằng deadlineTick.
+    // Delay liên tục để chắc chắn có deadline rơi đúng tick cascade (bội của 64, 4096), chỗ dễ nổ trễ 1 tick.
+    @Test
+    void timersFireOnTheirDeadlineTickAcrossCascades() throws Exception {
+        List<Long> delays = new ArrayList<>();
+        for (long d = 1; d <= 300; d++) {
+            delays.add(d);
+        }
+        for (long d = 4080; d <= 4120; d++) {
+            delays.add(d);
+        }
+        List<Timeout> timeouts = new ArrayList<>();
+        List<CompletableFuture<Long>> fired = new ArrayList<>();
+        for (long delay : delays) {
+            fired.add(firedAt(delay, timeouts));
+        }
+        for (int i = 0; i < delays.size(); i++) {
+            assertEquals(timeouts.get(i).deadlineTick, fired.get(i).get(10, TimeUnit.SECONDS),
+                    "delay " + delays.get(i) + "ms");
+        }
+        assertEquals(0, wheel.pending());
+    }
+
+    @Test
+    void cancelledTimerNeverFires() throws Exception {
+        List<Timeout> timeouts = new ArrayList<>();
+        CompletableFuture<Long> cancelled = firedAt(70, timeouts);
+        CompletableFuture<Long> later = firedAt(100, timeouts);
+        timeouts.get(0).cancel();
+
+        later.get(10, TimeUnit.SECONDS);
+        assertEquals(false, cancelled.isDone());
+        assertEquals(0, wheel.pending());
+    }
+}